@@ -1,14 +1,20 @@
 package pact.shopping.customer.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import pact.shopping.customer.dto.CustomerPageResponse;
 import pact.shopping.customer.model.Customer;
 import pact.shopping.customer.service.CustomerService;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/v1/customers")
@@ -16,6 +22,7 @@ import java.util.List;
 public class CustomerController implements IController {
 
     private final CustomerService service;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Customer> create(
@@ -40,10 +47,17 @@ public class CustomerController implements IController {
     @GetMapping("/{id}")
     public ResponseEntity<Customer> findById(
             @PathVariable
-            Long id) {
+            Long id,
+            WebRequest request) {
 
+        // answered from the version column alone, the customer is only loaded when it changed
+        if (request.checkNotModified(service.findETagById(id))) {
+            return null;
+        }
         final var product = service.findById(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(product.getVersion()))
+                .body(product);
     }
 
     public ResponseEntity<Void> delete(
@@ -54,8 +68,29 @@ public class CustomerController implements IController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Customer>> listAll() {
-        List<Customer> customers = service.findAll();
+    public ResponseEntity<CustomerPageResponse> listAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Boolean active) {
+
+        final var customers = service.findAll(cursor, limit, active);
         return ResponseEntity.ok(customers);
     }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAll(
+            @RequestParam(required = false) Boolean active,
+            HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (var writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(response.getOutputStream())) {
+            service.streamAll(active, customer -> {
+                try {
+                    writer.write(customer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 }
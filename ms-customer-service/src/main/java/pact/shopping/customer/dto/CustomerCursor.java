@@ -0,0 +1,21 @@
+package pact.shopping.customer.dto;
+
+import pact.shopping.customer.service.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record CustomerCursor(Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CustomerCursor decode(String cursor) {
+        try {
+            return new CustomerCursor(Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor '%s'".formatted(cursor));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package pact.shopping.customer.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import pact.shopping.customer.model.Customer;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CustomerPageResponse {
+    private List<Customer> customers;
+    private String next;
+}
@@ -1,9 +1,6 @@
 package pact.shopping.customer.model;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -25,4 +22,7 @@ public class Customer {
     private String email;
     private LocalDateTime createdAt;
     private Boolean active;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
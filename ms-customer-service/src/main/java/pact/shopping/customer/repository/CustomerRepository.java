@@ -1,9 +1,39 @@
 package pact.shopping.customer.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pact.shopping.customer.model.Customer;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    @Query("select c.version from Customer c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("""
+            select c from Customer c
+            where c.id > :after
+              and (:active is null or c.active = :active)
+            order by c.id
+            """)
+    List<Customer> findPage(@Param("after") Long after, @Param("active") Boolean active, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Customer c where (:active is null or c.active = :active) order by c.id")
+    Stream<Customer> streamAll(@Param("active") Boolean active);
 }
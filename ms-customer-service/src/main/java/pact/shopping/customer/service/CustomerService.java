@@ -1,21 +1,36 @@
 package pact.shopping.customer.service;
 
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pact.shopping.customer.dto.CustomerCursor;
+import pact.shopping.customer.dto.CustomerPageResponse;
 import pact.shopping.customer.model.Customer;
 import pact.shopping.customer.repository.CustomerRepository;
+import pact.shopping.customer.service.events.CustomerChangedEvent;
 import pact.shopping.customer.service.exceptions.NotFoundException;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class CustomerService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final CustomerRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
-    public CustomerService(CustomerRepository repository) {
+    public CustomerService(CustomerRepository repository,
+                           ApplicationEventPublisher eventPublisher,
+                           EntityManager entityManager) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     public Customer insert(Customer customer) {
@@ -31,19 +46,48 @@ public class CustomerService {
         productFound.setLastName(customer.getLastName());
         productFound.setEmail(customer.getEmail());
         repository.save(productFound);
+        eventPublisher.publishEvent(new CustomerChangedEvent(productFound.getId()));
     }
 
     public Customer findById(Long id) {
         return repository.findById(id).orElseThrow(NotFoundException::new);
     }
 
-    public List<Customer> findAll() {
-        return repository.findAll();
+    public String findETagById(Long id) {
+        return repository.findVersionById(id).map(String::valueOf).orElseThrow(NotFoundException::new);
+    }
+
+    public CustomerPageResponse findAll(String cursor, int limit, Boolean active) {
+        var pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var after = cursor == null ? 0L : CustomerCursor.decode(cursor).id();
+        // one row more than requested tells whether there is a next page
+        var customers = repository.findPage(after, active, PageRequest.of(0, pageSize + 1));
+
+        var hasNext = customers.size() > pageSize;
+        if (hasNext) {
+            customers = customers.subList(0, pageSize);
+        }
+        return CustomerPageResponse.builder()
+                .customers(customers)
+                .next(hasNext ? new CustomerCursor(customers.get(pageSize - 1).getId()).encode() : null)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Boolean active, Consumer<Customer> consumer) {
+        try (var customers = repository.streamAll(active)) {
+            customers.forEach(customer -> {
+                consumer.accept(customer);
+                // rows already written must not pile up in the persistence context
+                entityManager.detach(customer);
+            });
+        }
     }
 
     public void delete(Long id) {
         Customer customer = findById(id);
         customer.setActive(Boolean.FALSE);
         repository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(customer.getId()));
     }
 }
@@ -0,0 +1,38 @@
+package pact.shopping.customer.service.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class CustomerCacheInvalidator {
+
+    private final RestClient restClient;
+    private final List<String> urls;
+
+    public CustomerCacheInvalidator(RestClient.Builder builder,
+                                    @Value("${customer.cache-invalidation.urls:}") List<String> urls) {
+        this.restClient = builder.build();
+        this.urls = urls;
+    }
+
+    @Async
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        urls.forEach(url -> {
+            try {
+                restClient.delete().uri(url, event.id()).retrieve().toBodilessEntity();
+            } catch (RestClientException e) {
+                // subscribers still expire the entry on their own TTL
+                log.warn("Could not invalidate customer {} on {}: {}", event.id(), url, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,4 @@
+package pact.shopping.customer.service.events;
+
+public record CustomerChangedEvent(Long id) {
+}
@@ -63,8 +63,10 @@ public class CustomerPactVerificationTest {
                 .email("john.fox@gmail.com")
                 .createdAt(LocalDateTime.now())
                 .active(true)
+                .version(0L)
                 .build();
 
+        when(customerRepository.findVersionById(eq(10L))).thenReturn(Optional.of(0L));
         when(customerRepository.findById(eq(10L))).thenReturn(Optional.of(customer));
         when(customerRepository.save(any(Customer.class))).thenReturn(customer);
     }
@@ -0,0 +1,21 @@
+-- Seeds the pooled table generators of ordered, ordered_item and outbox_event (MySQL 8).
+-- Run once before deploying the switch from IDENTITY ids, with the service stopped.
+-- Hibernate hands out up to allocationSize (50) ids below the stored value, so the seed
+-- stays one full allocation above the highest id in use.
+
+create table if not exists id_generator (
+    sequence_name varchar(255) not null primary key,
+    next_val      bigint
+);
+
+insert into id_generator (sequence_name, next_val)
+select 'ordered', coalesce(max(id), 0) + 51 from ordered
+on duplicate key update next_val = greatest(next_val, values(next_val));
+
+insert into id_generator (sequence_name, next_val)
+select 'ordered_item', coalesce(max(id), 0) + 51 from ordered_item
+on duplicate key update next_val = greatest(next_val, values(next_val));
+
+insert into id_generator (sequence_name, next_val)
+select 'outbox_event', coalesce(max(id), 0) + 51 from outbox_event
+on duplicate key update next_val = greatest(next_val, values(next_val));
@@ -3,9 +3,12 @@ package pact.shopping.order;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import pact.shopping.order.config.FeignTransportConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableFeignClients
+@EnableFeignClients(defaultConfiguration = FeignTransportConfiguration.class)
+@EnableScheduling
 public class OrderApplication {
 
     public static void main(String[] args) {
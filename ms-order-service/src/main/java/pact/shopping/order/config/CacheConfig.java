@@ -0,0 +1,102 @@
+package pact.shopping.order.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pact.shopping.order.dto.CustomerResponse;
+import pact.shopping.order.dto.OrderResponse;
+import pact.shopping.order.dto.ProductResponse;
+import pact.shopping.order.service.cache.ETagged;
+import pact.shopping.order.service.client.CustomerClient;
+import pact.shopping.order.service.client.ProductClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toMap;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public LoadingCache<Long, ETagged<CustomerResponse>> customerLoadingCache(
+            MeterRegistry registry,
+            CustomerClient customerClient,
+            @Value("${order.cache.customers.maximum-size:10000}") long maximumSize,
+            @Value("${order.cache.customers.refresh-after-write:1m}") Duration refreshAfterWrite,
+            @Value("${order.cache.customers.expire-after-write:10m}") Duration expireAfterWrite) {
+        LoadingCache<Long, ETagged<CustomerResponse>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public ETagged<CustomerResponse> load(Long id) {
+                        return ETagged.of(customerClient.findById(id, null));
+                    }
+
+                    @Override
+                    public ETagged<CustomerResponse> reload(Long id, ETagged<CustomerResponse> oldValue) {
+                        return oldValue.revalidate(etag -> customerClient.findById(id, etag));
+                    }
+                });
+        return CaffeineCacheMetrics.monitor(registry, cache, "customers");
+    }
+
+    @Bean
+    public LoadingCache<Long, ETagged<ProductResponse>> productLoadingCache(
+            MeterRegistry registry,
+            ProductClient productClient,
+            @Value("${order.cache.products.maximum-size:10000}") long maximumSize,
+            @Value("${order.cache.products.refresh-after-write:1m}") Duration refreshAfterWrite,
+            @Value("${order.cache.products.expire-after-write:10m}") Duration expireAfterWrite) {
+        // entries older than refreshAfterWrite are still served while a conditional reload runs in the background,
+        // expireAfterWrite caps how stale a served entry can ever be
+        LoadingCache<Long, ETagged<ProductResponse>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public ETagged<ProductResponse> load(Long id) {
+                        return ETagged.of(productClient.findById(id, null));
+                    }
+
+                    @Override
+                    public ETagged<ProductResponse> reload(Long id, ETagged<ProductResponse> oldValue) {
+                        return oldValue.revalidate(etag -> productClient.findById(id, etag));
+                    }
+
+                    @Override
+                    public Map<Long, ETagged<ProductResponse>> loadAll(Set<? extends Long> ids) {
+                        // the bulk endpoint carries no per-product tags, the next reload fetches them
+                        return productClient.findAllByIds(new ArrayList<>(ids)).stream()
+                                .collect(toMap(ProductResponse::getId, product -> new ETagged<>(null, product)));
+                    }
+                });
+        return CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+
+    @Bean
+    public Cache<String, OrderResponse> idempotentResponseCache(
+            MeterRegistry registry,
+            @Value("${order.cache.idempotency.maximum-size:10000}") long maximumSize,
+            @Value("${order.cache.idempotency.expire-after-write:10m}") Duration expireAfterWrite) {
+        Cache<String, OrderResponse> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(registry, cache, "idempotency");
+    }
+}
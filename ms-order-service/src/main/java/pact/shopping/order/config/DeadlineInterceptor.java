@@ -0,0 +1,49 @@
+package pact.shopping.order.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import pact.shopping.order.service.deadline.RequestDeadline;
+import pact.shopping.order.service.exceptions.GatewayTimeoutException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+class DeadlineInterceptor implements HandlerInterceptor {
+
+    private final Duration defaultTimeout;
+
+    DeadlineInterceptor(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        var timeout = timeout(request.getHeader(RequestDeadline.HEADER));
+        if (timeout == null) {
+            return true;
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new GatewayTimeoutException("Request deadline expired before processing started");
+        }
+        RequestDeadline.set(Instant.now().plus(timeout));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    private Duration timeout(String header) {
+        if (header == null) {
+            return defaultTimeout;
+        }
+        try {
+            var timeout = Duration.ofMillis(Long.parseLong(header));
+            return defaultTimeout == null || timeout.compareTo(defaultTimeout) < 0 ? timeout : defaultTimeout;
+        } catch (NumberFormatException e) {
+            return defaultTimeout;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pact.shopping.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import pact.shopping.order.service.deadline.RequestDeadline;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor lookupTaskExecutor(
+            @Value("${order.lookup.pool-size:16}") int poolSize,
+            @Value("${order.lookup.queue-capacity:256}") int queueCapacity) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-lookup-");
+        executor.setTaskDecorator(RequestDeadline::wrap);
+        // when the pool and queue are full the lookup is rejected rather than run outside the deadline,
+        // LookupExecutor turns the rejection into a 503
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor orderPipelineTaskExecutor(
+            @Value("${order.pipeline.workers:8}") int workers) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        // the queue is bounded by the admission capacity of the OrderPipeline
+        executor.setThreadNamePrefix("order-pipeline-");
+        return executor;
+    }
+}
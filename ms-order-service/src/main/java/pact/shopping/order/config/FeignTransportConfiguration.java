@@ -0,0 +1,112 @@
+package pact.shopping.order.config;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pact.shopping.order.service.deadline.RequestDeadline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Not a @Configuration on purpose: it is applied to every Feign client through
+// @EnableFeignClients(defaultConfiguration), so each client context builds its own pool
+// from feign.clients.<contextId>.
+public class FeignTransportConfiguration {
+
+    @Bean
+    public Client feignClient(Environment environment,
+                              MeterRegistry registry,
+                              CircuitBreakerRegistry circuitBreakerRegistry,
+                              BulkheadRegistry bulkheadRegistry) {
+        var name = environment.getRequiredProperty("spring.cloud.openfeign.client.name");
+        var properties = Binder.get(environment)
+                .bindOrCreate("feign.clients." + name, FeignTransportProperties.class);
+        Client transport = properties.isHttp2()
+                ? new Http2Client(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build())
+                : pooledClient(name, properties, registry);
+        if (properties.getHedge().isEnabled()) {
+            var hedge = properties.getHedge();
+            var executor = new ThreadPoolExecutor(hedge.getThreads(), hedge.getThreads(), 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new CustomizableThreadFactory("feign-" + name + "-hedge-"));
+            executor.allowCoreThreadTimeOut(true);
+            transport = new HedgingClient(transport, name, hedge, registry, bulkheadRegistry.bulkhead(name),
+                    executor, hedge.getThreads());
+        }
+        // breaker and bulkhead use resilience4j.*.instances.<contextId>, falling back to configs.default
+        return new ResilientClient(transport, circuitBreakerRegistry.circuitBreaker(name), bulkheadRegistry.bulkhead(name));
+    }
+
+    @Bean
+    public RequestInterceptor deadlineRequestInterceptor() {
+        return template -> RequestDeadline.remaining()
+                .ifPresent(remaining -> template.header(RequestDeadline.HEADER, String.valueOf(remaining.toMillis())));
+    }
+
+    private Client pooledClient(String name, FeignTransportProperties properties, MeterRegistry registry) {
+        var pool = properties.getPool();
+        var connectionManager = new InstrumentedConnectionManager(name, registry);
+        connectionManager.setMaxTotal(pool.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(pool.getMaxPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.of(pool.getTimeToLive()))
+                .setValidateAfterInactivity(TimeValue.of(pool.getValidateAfterInactivity()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name, Tags.of("client", name))
+                .bindTo(registry);
+
+        var builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(pool.getLeaseTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.getEvictIdleAfter()));
+        if (!properties.isGzip()) {
+            builder.disableContentCompression();
+        }
+        return new PooledClient(builder.build());
+    }
+
+    // closes the pool together with the client context
+    static class PooledClient implements Client, Closeable {
+        private final CloseableHttpClient httpClient;
+        private final Client delegate;
+
+        PooledClient(CloseableHttpClient httpClient) {
+            this.httpClient = httpClient;
+            this.delegate = new ApacheHttp5Client(httpClient);
+        }
+
+        @Override
+        public Response execute(Request request, Request.Options options) throws IOException {
+            return delegate.execute(request, options);
+        }
+
+        @Override
+        public void close() throws IOException {
+            httpClient.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package pact.shopping.order.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class FeignTransportProperties {
+    private boolean http2 = false;
+    private boolean gzip = false;
+    private Pool pool = new Pool();
+    private Hedge hedge = new Hedge();
+
+    @Data
+    public static class Pool {
+        // every client talks to a single host, so the route limit is effectively the pool size
+        private int maxTotal = 50;
+        private int maxPerRoute = 50;
+        private Duration leaseTimeout = Duration.ofSeconds(1);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private Duration evictIdleAfter = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Hedge {
+        // only GET requests are hedged, so it is safe for idempotent lookups only
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        private Duration window = Duration.ofMinutes(1);
+        private long minSamples = 100;
+        private Duration minDelay = Duration.ofMillis(20);
+        // share of primary requests that may be hedged, and how many unused hedges can be saved up
+        private double budget = 0.05;
+        private double maxBurst = 10;
+        // attempts of hedgeable requests running at once, first attempts and hedges together
+        private int threads = 20;
+    }
+}
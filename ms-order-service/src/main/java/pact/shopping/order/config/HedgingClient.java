@@ -0,0 +1,249 @@
+package pact.shopping.order.config;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sends a second attempt of a GET when the first one has not answered within the observed
+// latency percentile of that method, and returns whichever response arrives first.
+// A request that cannot be hedged right now runs on the calling thread. The others run their attempts
+// on the hedging executor, at most slots of them at once, and every hedge holds a bulkhead permit of its own.
+class HedgingClient implements Client, Closeable {
+
+    private static final long TOKEN = 1000;
+
+    private final Client delegate;
+    private final String client;
+    private final FeignTransportProperties.Hedge properties;
+    private final MeterRegistry registry;
+    private final Bulkhead bulkhead;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final Map<String, Method> methods = new ConcurrentHashMap<>();
+    // hedges are paid for by primary requests: every request earns budget tokens, every hedge costs one
+    private final AtomicLong tokens = new AtomicLong();
+
+    HedgingClient(Client delegate, String client, FeignTransportProperties.Hedge properties,
+                  MeterRegistry registry, Bulkhead bulkhead, ExecutorService executor, int slots) {
+        this.delegate = delegate;
+        this.client = client;
+        this.properties = properties;
+        this.registry = registry;
+        this.bulkhead = bulkhead;
+        this.executor = executor;
+        this.slots = new Semaphore(slots);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            return delegate.execute(request, options);
+        }
+        var method = methods.computeIfAbsent(configKey(request), Method::new);
+        earnToken();
+
+        var threshold = method.threshold();
+        if (threshold == null || tokens.get() < TOKEN || !slots.tryAcquire()) {
+            var sample = Timer.start();
+            var response = delegate.execute(request, options);
+            sample.stop(method.latency);
+            return response;
+        }
+
+        var result = new CompletableFuture<Response>();
+        var failures = new AtomicInteger();
+        var attempts = new AtomicInteger(1);
+        executor.execute(() -> {
+            try {
+                attempt(request, options, method, result, failures, attempts, false);
+            } finally {
+                slots.release();
+            }
+        });
+
+        try {
+            return result.get(threshold.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            hedge(request, options, method, result, failures, attempts);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + client);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + client);
+        }
+    }
+
+    // the attempt count is raised before the hedge is queued, the executor never rejects
+    private void hedge(Request request, Request.Options options, Method method, CompletableFuture<Response> result,
+                       AtomicInteger failures, AtomicInteger attempts) {
+        if (!slots.tryAcquire()) {
+            return;
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            slots.release();
+            return;
+        }
+        if (!spendToken()) {
+            bulkhead.onComplete();
+            slots.release();
+            return;
+        }
+        attempts.incrementAndGet();
+        method.hedges.increment();
+        executor.execute(() -> {
+            try {
+                attempt(request, options, method, result, failures, attempts, true);
+            } finally {
+                bulkhead.onComplete();
+                slots.release();
+            }
+        });
+    }
+
+    private void attempt(Request request, Request.Options options, Method method, CompletableFuture<Response> result,
+                         AtomicInteger failures, AtomicInteger attempts, boolean hedge) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            var sample = Timer.start();
+            var response = delegate.execute(request, options);
+            sample.stop(method.latency);
+            if (!result.complete(response)) {
+                // the other attempt already answered, release the connection of this one
+                response.close();
+            } else if (hedge) {
+                method.wins.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            // the caller only sees a failure once every attempt has failed
+            if (failures.incrementAndGet() >= attempts.get()) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void earnToken() {
+        var max = (long) (properties.getMaxBurst() * TOKEN);
+        var earned = (long) (properties.getBudget() * TOKEN);
+        tokens.updateAndGet(current -> Math.min(max, current + earned));
+    }
+
+    private boolean spendToken() {
+        while (true) {
+            var current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    private static String configKey(Request request) {
+        var template = request.requestTemplate();
+        return template != null && template.methodMetadata() != null
+                ? template.methodMetadata().configKey()
+                : request.url();
+    }
+
+    private static IOException unwrap(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof IOException io) {
+            return io;
+        }
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IOException(e);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private class Method {
+        private final Timer latency;
+        private final Counter hedges;
+        private final Counter wins;
+        private volatile Duration threshold;
+        private volatile long refreshedAt;
+
+        Method(String method) {
+            this.latency = Timer.builder("feign.client.hedge.latency")
+                    .description("Latency of single attempts, used to derive the hedging threshold")
+                    .tags("client", client, "method", method)
+                    .publishPercentiles(properties.getPercentile())
+                    .distributionStatisticExpiry(properties.getWindow())
+                    .register(registry);
+            this.hedges = Counter.builder("feign.client.hedges")
+                    .description("Second attempts sent because the first one was slower than the threshold")
+                    .tags("client", client, "method", method)
+                    .register(registry);
+            this.wins = Counter.builder("feign.client.hedge.wins")
+                    .description("Hedged attempts that answered before the first one")
+                    .tags("client", client, "method", method)
+                    .register(registry);
+        }
+
+        // null until enough attempts were observed to trust the percentile, checked on every call until then
+        Duration threshold() {
+            var now = System.currentTimeMillis();
+            if (threshold == null || now - refreshedAt > 1000) {
+                refreshedAt = now;
+                threshold = computeThreshold();
+            }
+            return threshold;
+        }
+
+        private Duration computeThreshold() {
+            if (latency.count() < properties.getMinSamples()) {
+                return null;
+            }
+            var percentiles = latency.takeSnapshot().percentileValues();
+            if (percentiles.length == 0) {
+                return null;
+            }
+            var observed = Duration.ofNanos((long) percentiles[0].value(TimeUnit.NANOSECONDS));
+            return observed.compareTo(properties.getMinDelay()) < 0 ? properties.getMinDelay() : observed;
+        }
+    }
+}
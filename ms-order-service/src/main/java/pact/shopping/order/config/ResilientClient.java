@@ -0,0 +1,75 @@
+package pact.shopping.order.config;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import pact.shopping.order.service.deadline.RequestDeadline;
+import pact.shopping.order.service.exceptions.GatewayTimeoutException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+class ResilientClient implements Client, Closeable {
+
+    private final Client delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    ResilientClient(Client delegate, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        var timeouts = withinDeadline(options);
+        bulkhead.acquirePermission();
+        try {
+            circuitBreaker.acquirePermission();
+            var start = System.nanoTime();
+            try {
+                var response = delegate.execute(request, timeouts);
+                var duration = System.nanoTime() - start;
+                if (response.status() >= 500) {
+                    circuitBreaker.onError(duration, TimeUnit.NANOSECONDS, new IOException("Server responded with " + response.status()));
+                } else {
+                    circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+                }
+                return response;
+            } catch (IOException | RuntimeException e) {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                throw e;
+            }
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    // the read timeout never outlives the deadline of the request being served
+    private Request.Options withinDeadline(Request.Options options) {
+        var remaining = RequestDeadline.remaining().orElse(null);
+        if (remaining == null) {
+            return options;
+        }
+        if (remaining.isNegative() || remaining.isZero()) {
+            throw new GatewayTimeoutException("Request deadline expired before calling " + circuitBreaker.getName());
+        }
+        if (remaining.toMillis() >= options.readTimeoutUnit().toMillis(options.readTimeout())) {
+            return options;
+        }
+        return new Request.Options(options.connectTimeout(), options.connectTimeoutUnit(),
+                remaining.toMillis(), TimeUnit.MILLISECONDS, options.isFollowRedirects());
+    }
+
+    // lets the client context close the pool underneath
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
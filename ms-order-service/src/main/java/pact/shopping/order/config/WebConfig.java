@@ -0,0 +1,25 @@
+package pact.shopping.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final Duration deadline;
+
+    public WebConfig(@Value("${order.deadline:10s}") Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // order requests start the deadline that every downstream call inherits
+        registry.addInterceptor(new DeadlineInterceptor(deadline))
+                .addPathPatterns("/v1/customers/**");
+    }
+}
@@ -0,0 +1,32 @@
+package pact.shopping.order.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pact.shopping.order.service.cache.CustomerCache;
+import pact.shopping.order.service.cache.ProductCache;
+
+@RestController
+@RequestMapping("/internal/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CustomerCache customerCache;
+    private final ProductCache productCache;
+
+    @DeleteMapping("/customers/{id}")
+    public ResponseEntity<Void> invalidateCustomer(
+            @PathVariable
+            Long id) {
+        customerCache.invalidate(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/products/{id}")
+    public ResponseEntity<Void> invalidateProduct(
+            @PathVariable
+            Long id) {
+        productCache.invalidate(id);
+        return ResponseEntity.noContent().build();
+    }
+}
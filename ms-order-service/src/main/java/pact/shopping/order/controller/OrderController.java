@@ -4,8 +4,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pact.shopping.order.dto.OrderPageResponse;
 import pact.shopping.order.dto.OrderRequest;
 import pact.shopping.order.dto.OrderResponse;
+import pact.shopping.order.dto.OrderSubmissionResponse;
 import pact.shopping.order.service.OrderService;
 
 @RestController
@@ -13,26 +16,63 @@ import pact.shopping.order.service.OrderService;
 @RequiredArgsConstructor
 public class OrderController implements IController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final OrderService service;
 
     @PostMapping("/{customerId}/orders")
     public ResponseEntity<OrderResponse> create(
             @PathVariable Long customerId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @RequestBody
             @Valid OrderRequest request) {
 
-        var response = service.save(request, customerId);
+        var response = service.save(request, customerId, idempotencyKey);
         return ResponseEntity.created(getURI(response.getId())).body(response);
     }
 
+    @PostMapping(value = "/{customerId}/orders", headers = "Prefer=respond-async")
+    public ResponseEntity<OrderSubmissionResponse> submit(
+            @PathVariable Long customerId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestBody
+            @Valid OrderRequest request) {
+
+        var response = service.submit(request, customerId, idempotencyKey);
+        var location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/submissions/{uuid}").buildAndExpand(response.getUuid()).toUri();
+        return ResponseEntity.accepted().location(location).body(response);
+    }
+
+    @GetMapping("/{customerId}/orders/submissions/{uuid}")
+    public ResponseEntity<OrderSubmissionResponse> findSubmission(
+            @PathVariable Long customerId,
+            @PathVariable
+            String uuid) {
+
+        final var response = service.findSubmission(customerId, uuid);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{customerId}/orders/{id}")
     public ResponseEntity<OrderResponse> findById(
             @PathVariable Long customerId,
             @PathVariable
-            Long id) {
+            Long id,
+            @RequestParam(required = false) String currency) {
 
-        final var response = service.findByCustomerIdAndId(customerId, id);
+        final var response = service.findByCustomerIdAndId(customerId, id, currency);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{customerId}/orders")
+    public ResponseEntity<OrderPageResponse> findAll(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String currency) {
+
+        final var response = service.findAllByCustomerId(customerId, cursor, limit, currency);
+        return ResponseEntity.ok(response);
+    }
 }
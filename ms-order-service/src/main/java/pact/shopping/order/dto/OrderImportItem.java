@@ -0,0 +1,17 @@
+package pact.shopping.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderImportItem {
+    private Long id;
+    private Integer quantity;
+    // the price the item was sold at, required on lines that carry a createdAt
+    private PriceResponse price;
+}
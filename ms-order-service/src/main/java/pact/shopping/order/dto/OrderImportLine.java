@@ -0,0 +1,20 @@
+package pact.shopping.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderImportLine {
+    private Long customerId;
+    private String idempotencyKey;
+    private LocalDateTime createdAt;
+    private List<OrderImportItem> items;
+}
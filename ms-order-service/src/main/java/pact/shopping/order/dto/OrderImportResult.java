@@ -0,0 +1,13 @@
+package pact.shopping.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class OrderImportResult {
+    private Long line;
+    private OrderImportStatusEnum status;
+    private Long id;
+    private String error;
+}
@@ -0,0 +1,7 @@
+package pact.shopping.order.dto;
+
+public enum OrderImportStatusEnum {
+    CREATED,
+    DUPLICATE,
+    FAILED
+}
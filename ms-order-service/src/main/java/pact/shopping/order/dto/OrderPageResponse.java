@@ -0,0 +1,13 @@
+package pact.shopping.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class OrderPageResponse {
+    private List<OrderResponse> orders;
+    private String next;
+}
@@ -17,4 +17,5 @@ public class OrderResponse {
     private OrderCustomer customer;
     private List<OrderItemResponse> items;
     private BigDecimal total;
+    private CurrencyDto currency;
 }
@@ -0,0 +1,13 @@
+package pact.shopping.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import pact.shopping.order.model.enums.OrderStatusEnum;
+
+@Data
+@Builder
+public class OrderSubmissionResponse {
+    private Long id;
+    private String uuid;
+    private OrderStatusEnum status;
+}
@@ -20,12 +20,12 @@ public class ProductResponse {
     private String category;
     private Integer quantity;
     private List<PriceResponse> prices;
+    private PriceResponse currentPrice;
 
+    // product-service sends the price in effect, older payloads only carry the history newest first
     public PriceResponse getCurrentPrice() {
-        var price = Optional.ofNullable(prices)
-                .orElseGet(Collections::emptyList)
-                .stream()
-                .findFirst()
+        var price = Optional.ofNullable(currentPrice)
+                .or(() -> Optional.ofNullable(prices).orElseGet(Collections::emptyList).stream().findFirst())
                 .orElseThrow(() -> new RuntimeException("Product doesnt have price"));
         price.setTotal(price.getAmount().multiply(BigDecimal.valueOf(quantity)));
         return price;
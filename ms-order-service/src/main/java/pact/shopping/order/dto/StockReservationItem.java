@@ -0,0 +1,16 @@
+package pact.shopping.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservationItem {
+    private Long productId;
+    private Integer quantity;
+    private String status;
+}
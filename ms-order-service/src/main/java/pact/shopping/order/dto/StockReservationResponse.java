@@ -0,0 +1,17 @@
+package pact.shopping.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservationResponse {
+    private Boolean reserved;
+    private List<StockReservationItem> items;
+}
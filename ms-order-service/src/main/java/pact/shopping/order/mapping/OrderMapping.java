@@ -1,5 +1,6 @@
 package pact.shopping.order.mapping;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import pact.shopping.order.dto.*;
 import pact.shopping.order.model.Order;
@@ -7,22 +8,31 @@ import pact.shopping.order.model.OrderItem;
 import pact.shopping.order.model.OrderPrice;
 import pact.shopping.order.model.PriceCurrency;
 import pact.shopping.order.model.enums.OrderStatusEnum;
+import pact.shopping.order.service.exceptions.BadRequestException;
+import pact.shopping.order.service.fx.FxRateTable;
+import pact.shopping.order.service.fx.FxRates;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 public class OrderMapping {
+
+    private final FxRateTable fxRateTable;
+
     public Order to(OrderRequest request, Long customerId) {
         List<OrderItem> items = new ArrayList<>();
         var order = Order.builder()
                 .customerId(customerId)
                 .uuid(UUID.randomUUID().toString())
                 .createdAt(LocalDateTime.now())
-                .status(OrderStatusEnum.DONE)
+                .status(OrderStatusEnum.PENDING)
                 .items(items)
                 .build();
 
@@ -37,28 +47,97 @@ public class OrderMapping {
         return order;
     }
 
-    public OrderResponse to(Order order, CustomerResponse customer, List<OrderItemResponse> items) {
-        var total = items.stream().map(OrderItemResponse::getPrice).map(PriceResponse::getTotal).reduce(BigDecimal::add).orElse(BigDecimal.ZERO);
+    public OrderResponse to(Order order) {
+        return to(order, null);
+    }
+
+    // without a requested currency the lines keep their own and the total is given in the currency of the first line
+    public OrderResponse to(Order order, String currency) {
+        var rates = fxRateTable.current();
+        var target = currency == null ? null : currency.toUpperCase(Locale.ROOT);
+        if (target != null && !rates.supports(target)) {
+            throw new BadRequestException("Currency '%s' is not supported".formatted(currency));
+        }
+        var requested = target == null ? null : CurrencyDto.builder().symbol(rates.symbol(target)).iso(target).build();
+        var items = order.getItems().stream().map(item -> to(item, rates, requested)).toList();
+        var totalCurrency = requested != null ? requested : items.stream()
+                .map(OrderItemResponse::getPrice)
+                .filter(Objects::nonNull)
+                .map(PriceResponse::getCurrency)
+                .findFirst()
+                .orElse(null);
         return OrderResponse.builder()
                 .id(order.getId())
                 .createdAt(order.getCreatedAt())
                 .status(order.getStatus())
                 .customer(OrderCustomer.builder()
-                        .id(customer.getId())
-                        .firstName(customer.getFirstName())
-                        .lastName(customer.getLastName())
+                        .id(order.getCustomerId())
+                        .firstName(order.getCustomerFirstName())
+                        .lastName(order.getCustomerLastName())
                         .build())
                 .items(items)
-                .total(total)
+                .total(total(items, rates, totalCurrency))
+                .currency(totalCurrency)
                 .build();
     }
 
-    public OrderItemResponse to(OrderItem item, ProductResponse product) {
+    // null when a line is in a currency the rate table cannot convert
+    private BigDecimal total(List<OrderItemResponse> items, FxRates rates, CurrencyDto currency) {
+        var total = BigDecimal.ZERO;
+        for (OrderItemResponse item : items) {
+            var price = item.getPrice();
+            if (price == null) {
+                continue;
+            }
+            var iso = price.getCurrency().getIso();
+            if (iso.equals(currency.getIso())) {
+                total = total.add(price.getTotal());
+            } else if (rates.supports(iso) && rates.supports(currency.getIso())) {
+                total = total.add(rates.convert(price.getTotal(), iso, currency.getIso()));
+            } else {
+                return null;
+            }
+        }
+        return total;
+    }
+
+    public OrderItemResponse to(OrderItem item) {
+        return to(item, fxRateTable.current(), null);
+    }
+
+    private OrderItemResponse to(OrderItem item, FxRates rates, CurrencyDto currency) {
+        var price = item.getPrice() == null ? null : to(item.getPrice(), item.getQuantity());
         return OrderItemResponse.builder()
                 .id(item.getId())
-                .name(product.getName())
+                .name(item.getProductName())
                 .quantity(item.getQuantity())
-                .price(product.getCurrentPrice())
+                .price(price == null || currency == null ? price : convert(price, rates, currency))
+                .build();
+    }
+
+    // a line stored in a currency the rate table no longer knows keeps its own, the order total is then null
+    private PriceResponse convert(PriceResponse price, FxRates rates, CurrencyDto currency) {
+        var from = price.getCurrency().getIso();
+        var to = currency.getIso();
+        if (from.equals(to) || !rates.supports(from)) {
+            return price;
+        }
+        price.setAmount(rates.convert(price.getAmount(), from, to));
+        price.setDiscount(rates.convert(price.getDiscount(), from, to));
+        price.setTotal(rates.convert(price.getTotal(), from, to));
+        price.setCurrency(currency);
+        return price;
+    }
+
+    public PriceResponse to(OrderPrice price, Integer quantity) {
+        return PriceResponse.builder()
+                .amount(price.getAmount())
+                .discount(price.getDiscount())
+                .total(price.getAmount().multiply(BigDecimal.valueOf(quantity)))
+                .currency(CurrencyDto.builder()
+                        .symbol(price.getCurrency().getSymbol())
+                        .iso(price.getCurrency().getIso())
+                        .build())
                 .build();
     }
 
@@ -72,4 +151,24 @@ public class OrderMapping {
                         .build())
                 .build();
     }
+
+    public StockReservationRequest toReservation(Order order) {
+        return StockReservationRequest.builder()
+                .orderUuid(order.getUuid())
+                .items(order.getItems().stream()
+                        .map(item -> StockReservationItem.builder()
+                                .productId(item.getProductId())
+                                .quantity(item.getQuantity())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    public OrderSubmissionResponse toSubmission(Order order) {
+        return OrderSubmissionResponse.builder()
+                .id(order.getId())
+                .uuid(order.getUuid())
+                .status(order.getStatus())
+                .build();
+    }
 }
@@ -15,16 +15,30 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "ordered")
+@Table(name = "ordered", indexes = {
+        @Index(name = "idx_ordered_customer_created", columnList = "customerId, createdAt, id"),
+        @Index(name = "idx_ordered_uuid", columnList = "uuid", unique = true),
+        @Index(name = "idx_ordered_customer_idempotency_key", columnList = "customerId, idempotencyKey", unique = true)
+})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ordered_id")
+    @TableGenerator(name = "ordered_id", table = "id_generator", pkColumnValue = "ordered", allocationSize = 50)
     private Long id;
     private String uuid;
+    private String idempotencyKey;
     private LocalDateTime createdAt;
     @Enumerated(EnumType.STRING)
     private OrderStatusEnum status;
+    // set when a submitted order is queued and again when processing starts,
+    // a PENDING or PROCESSING order with an old claim was lost
+    private LocalDateTime claimedAt;
     private Long customerId;
+    private String customerFirstName;
+    private String customerLastName;
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderItem> items;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -16,7 +16,8 @@ import java.math.BigDecimal;
 @Table(name = "ordered_item")
 public class OrderItem implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ordered_item_id")
+    @TableGenerator(name = "ordered_item_id", table = "id_generator", pkColumnValue = "ordered_item", allocationSize = 50)
     private Long id;
 
     @JsonIgnore
@@ -24,6 +25,7 @@ public class OrderItem implements Serializable {
     @JoinColumn(name = "order_id")
     private Order order;
     private Long productId;
+    private String productName;
     private Integer quantity;
 
     @Embedded
@@ -0,0 +1,29 @@
+package pact.shopping.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_published", columnList = "publishedAt, id"))
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbox_event_id")
+    @TableGenerator(name = "outbox_event_id", table = "id_generator", pkColumnValue = "outbox_event", allocationSize = 50)
+    private Long id;
+    private String aggregateType;
+    private Long aggregateId;
+    private String type;
+    @Lob
+    private String payload;
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+}
@@ -1,6 +1,9 @@
 package pact.shopping.order.model.enums;
 
 public enum OrderStatusEnum {
+    PENDING,
+    PROCESSING,
+    REJECTED,
     WAITING_PAYMENT,
     CANCELLED,
     DONE
@@ -1,12 +1,73 @@
 package pact.shopping.order.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import pact.shopping.order.model.Order;
+import pact.shopping.order.model.enums.OrderStatusEnum;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByCustomerIdAndId(Long customerId, Long id);
+
+    Optional<Order> findByCustomerIdAndUuid(Long customerId, String uuid);
+
+    Optional<Order> findByCustomerIdAndIdempotencyKey(Long customerId, String idempotencyKey);
+
+    List<Order> findAllByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    // SKIP LOCKED lets several instances sweep without claiming the same orders
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select o from Order o
+            where o.status in :statuses and (o.claimedAt is null or o.claimedAt < :claimedBefore)
+            order by o.id""")
+    List<Order> findUnclaimed(@Param("statuses") Collection<OrderStatusEnum> statuses,
+                              @Param("claimedBefore") LocalDateTime claimedBefore,
+                              Pageable pageable);
+
+    // only one run gets past this for a given version of a PENDING order
+    @Transactional
+    @Modifying
+    @Query("""
+            update Order o set o.status = pact.shopping.order.model.enums.OrderStatusEnum.PROCESSING,
+                o.claimedAt = :claimedAt, o.version = o.version + 1
+            where o.id = :id and o.status = pact.shopping.order.model.enums.OrderStatusEnum.PENDING
+              and o.version = :version""")
+    int claim(@Param("id") Long id, @Param("version") Long version, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Query("select o.id from Order o where o.customerId = :customerId order by o.createdAt desc, o.id desc")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    @Query("""
+            select o.id from Order o
+            where o.customerId = :customerId
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc""")
+    List<Long> findIdsByCustomerIdBefore(@Param("customerId") Long customerId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    @EntityGraph(attributePaths = "items")
+    List<Order> findAllByIdIn(Collection<Long> ids, Sort sort);
 }
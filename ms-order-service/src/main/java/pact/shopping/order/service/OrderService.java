@@ -1,70 +1,333 @@
 package pact.shopping.order.service;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import pact.shopping.order.dto.*;
 import pact.shopping.order.mapping.OrderMapping;
 import pact.shopping.order.model.Order;
 import pact.shopping.order.model.OrderItem;
+import pact.shopping.order.model.enums.OrderStatusEnum;
 import pact.shopping.order.repository.OrderRepository;
-import pact.shopping.order.service.client.CustomerClient;
+import pact.shopping.order.service.cache.CustomerCache;
+import pact.shopping.order.service.cache.OrderResponseCache;
+import pact.shopping.order.service.cache.ProductCache;
+import pact.shopping.order.service.client.ClientFailures;
 import pact.shopping.order.service.client.ProductClient;
 import pact.shopping.order.service.exceptions.BadRequestException;
+import pact.shopping.order.service.exceptions.GatewayTimeoutException;
 import pact.shopping.order.service.exceptions.NotFoundException;
+import pact.shopping.order.service.exceptions.ServiceUnavailableException;
+import pact.shopping.order.service.lookup.LookupExecutor;
+import pact.shopping.order.service.lookup.ProductLookup;
+import pact.shopping.order.service.lookup.ProductSnapshot;
+import pact.shopping.order.service.outbox.OutboxWriter;
+import pact.shopping.order.service.pipeline.OrderPipeline;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
+
+@Slf4j
 @Service
 @AllArgsConstructor
 public class OrderService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String RESERVED = "RESERVED";
+
     private final OrderRepository repository;
     private final ProductClient productClient;
-    private final CustomerClient customerClient;
+    private final ProductLookup productLookup;
+    private final CustomerCache customerCache;
+    private final ProductCache productCache;
     private final OrderMapping mapper;
+    private final LookupExecutor lookupExecutor;
+    private final OrderPipeline pipeline;
+    private final OutboxWriter outboxWriter;
+    private final OrderResponseCache responseCache;
 
-    public OrderResponse save(OrderRequest request, Long customerId) {
+    public OrderResponse save(OrderRequest request, Long customerId, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            var replay = findReplay(customerId, idempotencyKey);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+        }
 
-        var customer = customerClient.findById(customerId).orElseThrow();
         var order = mapper.to(request, customerId);
+        order.setIdempotencyKey(idempotencyKey);
+        try {
+            complete(order);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            // a concurrent request with the same key won the insert
+            return findReplay(customerId, idempotencyKey).orElseThrow(() -> e);
+        }
 
-        order.getItems().forEach(item -> {
-            var product = getProduct(item);
+        var response = mapper.to(order);
+        if (idempotencyKey != null) {
+            responseCache.put(customerId, idempotencyKey, response);
+        }
+        return response;
+    }
+
+    public OrderSubmissionResponse submit(OrderRequest request, Long customerId, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            var existing = repository.findByCustomerIdAndIdempotencyKey(customerId, idempotencyKey);
+            if (existing.isPresent()) {
+                return mapper.toSubmission(existing.get());
+            }
+        }
+        if (!pipeline.tryAcquire()) {
+            throw new ServiceUnavailableException("Order pipeline is full, retry later");
+        }
+
+        Order order;
+        try {
+            var pending = mapper.to(request, customerId);
+            pending.setIdempotencyKey(idempotencyKey);
+            pending.setClaimedAt(LocalDateTime.now());
+            order = repository.save(pending);
+        } catch (DataIntegrityViolationException e) {
+            pipeline.release();
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            return repository.findByCustomerIdAndIdempotencyKey(customerId, idempotencyKey)
+                    .map(mapper::toSubmission)
+                    .orElseThrow(() -> e);
+        } catch (RuntimeException e) {
+            pipeline.release();
+            throw e;
+        }
+        var orderId = order.getId();
+        pipeline.execute(() -> process(orderId));
+
+        return mapper.toSubmission(order);
+    }
 
-            if (product.getQuantity() - item.getQuantity() < 0) {
-                throw new BadRequestException("Product id %s not available on stock".formatted(item.getProductId()));
+    private Optional<OrderResponse> findReplay(Long customerId, String idempotencyKey) {
+        var cached = responseCache.get(customerId, idempotencyKey);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return repository.findByCustomerIdAndIdempotencyKey(customerId, idempotencyKey)
+                .map(order -> {
+                    fillMissingNames(order);
+                    return mapper.to(order);
+                });
+    }
+
+    public OrderSubmissionResponse findSubmission(Long customerId, String uuid) {
+        return repository.findByCustomerIdAndUuid(customerId, uuid)
+                .map(mapper::toSubmission)
+                .orElseThrow(() -> new NotFoundException("Order uuid '%s' for the customer '%s' not found".formatted(uuid, customerId)));
+    }
+
+    // an order that cannot be loaded or whose lookups fail for now stays PENDING, PendingOrderSweeper
+    // hands it to the pipeline again once its claim is stale. Only the run that moves the order from PENDING
+    // to PROCESSING goes on, a run whose order was taken over in between loses on the version when it saves
+    public void process(Long orderId) {
+        Order order;
+        try {
+            order = repository.findWithItemsById(orderId).orElseThrow();
+        } catch (RuntimeException e) {
+            log.warn("Could not load submitted order {}: {}", orderId, e.getMessage());
+            return;
+        }
+        if (order.getStatus() != OrderStatusEnum.PENDING) {
+            return;
+        }
+        var now = LocalDateTime.now();
+        if (repository.claim(orderId, order.getVersion(), now) == 0) {
+            log.debug("Order {} is already taken by another run", orderId);
+            return;
+        }
+        order.setStatus(OrderStatusEnum.PROCESSING);
+        order.setClaimedAt(now);
+        order.setVersion(order.getVersion() + 1);
+
+        try {
+            complete(order);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Order {} was taken over while it was processed", orderId);
+        } catch (RuntimeException e) {
+            var unavailable = ClientFailures.isUnavailable(e) || e instanceof GatewayTimeoutException
+                    || e instanceof ServiceUnavailableException;
+            if (unavailable) {
+                log.warn("Order {} stays pending, a downstream service is unavailable: {}", orderId, e.getMessage());
+            } else {
+                log.warn("Order {} rejected: {}", orderId, e.getMessage());
+            }
+            order.setStatus(unavailable ? OrderStatusEnum.PENDING : OrderStatusEnum.REJECTED);
+            try {
+                repository.save(order);
+            } catch (RuntimeException saveFailure) {
+                log.warn("Could not update order {}: {}", orderId, saveFailure.getMessage());
             }
-            var price = mapper.to(product.getCurrentPrice());
+        }
+    }
+
+    private void complete(Order order) {
+        var quantities = requiredQuantities(order);
+
+        var customer = lookupExecutor.submit(() -> getCustomer(order.getCustomerId()));
+        var products = lookupExecutor.submitBatches(quantities.keySet(),
+                productIds -> checkStock(getProducts(productIds), quantities));
+        await(customer, products);
+
+        var snapshot = ProductSnapshot.of(products);
+        products.forEach(batch -> productCache.putAll(batch.join()));
+
+        order.setCustomerFirstName(customer.join().getFirstName());
+        order.setCustomerLastName(customer.join().getLastName());
+        order.getItems().forEach(item -> {
+            var price = mapper.to(snapshot.getPrice(item.getProductId()));
             item.setPrice(price);
+            item.setProductName(snapshot.getProduct(item.getProductId()).getName());
         });
 
-        repository.save(order);
-
-        return enhanceWithProductAndPriceDetails(order, customer);
+        var reservation = mapper.toReservation(order);
+        reserveStock(reservation);
+        order.setStatus(OrderStatusEnum.DONE);
+        try {
+            outboxWriter.saveCreated(order);
+        } catch (OptimisticLockingFailureException e) {
+            // the run that took the order over holds the same reservation
+            throw e;
+        } catch (RuntimeException e) {
+            productClient.release(reservation);
+            throw e;
+        }
     }
 
-    public OrderResponse findByCustomerIdAndId(Long customerId, Long id) {
+    public OrderResponse findByCustomerIdAndId(Long customerId, Long id, String currency) {
         var order = repository.findByCustomerIdAndId(customerId, id)
                 .orElseThrow(() -> new NotFoundException("Order id '%s' for the customer '%s' not found".formatted(id, customerId)));
-        var customer = customerClient.findById(customerId)
-                .orElseThrow(() -> new NotFoundException("Customer id'%s' not found".formatted(customerId)));
-        return enhanceWithProductAndPriceDetails(order, customer);
+        fillMissingNames(order);
+        return mapper.to(order, currency);
     }
 
-    private OrderResponse enhanceWithProductAndPriceDetails(Order order, CustomerResponse customer) {
-        List<OrderItemResponse> items = new ArrayList<>();
+    public OrderPageResponse findAllByCustomerId(Long customerId, String cursor, int limit, String currency) {
+        var pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // one row more than requested tells whether there is a next page
+        var page = PageRequest.of(0, pageSize + 1);
+        var ids = cursor == null
+                ? repository.findIdsByCustomerId(customerId, page)
+                : findIdsBefore(customerId, OrderCursor.decode(cursor), page);
 
-        order.getItems().forEach(item -> {
-            var product = getProduct(item);
-            items.add(mapper.to(item, product));
+        var hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return OrderPageResponse.builder().orders(Collections.emptyList()).build();
+        }
+
+        var orders = repository.findAllByIdIn(ids, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+        orders.forEach(this::fillMissingNames);
+
+        var last = orders.get(orders.size() - 1);
+        return OrderPageResponse.builder()
+                .orders(orders.stream().map(order -> mapper.to(order, currency)).toList())
+                .next(hasNext ? new OrderCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
+
+    private List<Long> findIdsBefore(Long customerId, OrderCursor cursor, PageRequest page) {
+        return repository.findIdsByCustomerIdBefore(customerId, cursor.createdAt(), cursor.id(), page);
+    }
+
+    // orders created before names were snapshotted still need the remote lookups
+    private void fillMissingNames(Order order) {
+        if (order.getStatus() != OrderStatusEnum.DONE) {
+            return;
+        }
+        if (order.getCustomerFirstName() == null) {
+            var customer = getCustomer(order.getCustomerId());
+            order.setCustomerFirstName(customer.getFirstName());
+            order.setCustomerLastName(customer.getLastName());
+        }
+
+        var productIds = new LinkedHashSet<Long>();
+        order.getItems().stream()
+                .filter(item -> item.getProductName() == null)
+                .forEach(item -> productIds.add(item.getProductId()));
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        var products = lookupExecutor.submitBatches(productIds, productCache::findAllByIds);
+        lookupExecutor.awaitAll(products);
+        var snapshot = ProductSnapshot.of(products);
+        order.getItems().stream()
+                .filter(item -> item.getProductName() == null)
+                .forEach(item -> item.setProductName(snapshot.getProduct(item.getProductId()).getName()));
+    }
+
+    private void await(CompletableFuture<CustomerResponse> customer, List<CompletableFuture<List<ProductResponse>>> products) {
+        List<CompletableFuture<?>> lookups = new ArrayList<>(products);
+        lookups.add(customer);
+        lookupExecutor.awaitAll(lookups);
+    }
+
+    private Map<Long, Integer> requiredQuantities(Order order) {
+        return order.getItems().stream()
+                .collect(groupingBy(OrderItem::getProductId, LinkedHashMap::new, summingInt(OrderItem::getQuantity)));
+    }
+
+    private CustomerResponse getCustomer(Long customerId) {
+        return customerCache.findById(customerId)
+                .orElseThrow(() -> new NotFoundException("Customer id'%s' not found".formatted(customerId)));
+    }
+
+    private List<ProductResponse> checkStock(List<ProductResponse> products, Map<Long, Integer> quantities) {
+        products.forEach(product -> {
+            if (product.getQuantity() - quantities.get(product.getId()) < 0) {
+                throw new BadRequestException("Product id %s not available on stock".formatted(product.getId()));
+            }
         });
+        return products;
+    }
 
-        return mapper.to(order, customer, items);
+    private void reserveStock(StockReservationRequest reservation) {
+        var response = productClient.reserve(reservation);
+        if (!Boolean.TRUE.equals(response.getReserved())) {
+            var productId = response.getItems().stream()
+                    .filter(item -> !RESERVED.equals(item.getStatus()))
+                    .map(StockReservationItem::getProductId)
+                    .findFirst()
+                    .orElse(null);
+            throw new BadRequestException("Product id %s not available on stock".formatted(productId));
+        }
     }
 
-    private ProductResponse getProduct(OrderItem item) {
-        return productClient.findById(item.getProductId())
-                .orElseThrow(() -> new NotFoundException("Product id '%s' not found".formatted(item.getProductId())));
+    private List<ProductResponse> getProducts(List<Long> productIds) {
+        List<ProductResponse> products;
+        try {
+            products = productLookup.findAllByIds(productIds);
+        } catch (RuntimeException e) {
+            // while product-service is unavailable the near cache answers if it holds every product,
+            // the stock reservation still goes to product-service afterwards
+            if (!ClientFailures.isUnavailable(e)) {
+                throw e;
+            }
+            products = productCache.findAllPresent(productIds).orElseThrow(() -> e);
+        }
+        if (products.size() < productIds.size()) {
+            var missing = new LinkedHashSet<>(productIds);
+            products.forEach(product -> missing.remove(product.getId()));
+            throw new NotFoundException("Product id '%s' not found".formatted(missing.iterator().next()));
+        }
+        return products;
     }
 }
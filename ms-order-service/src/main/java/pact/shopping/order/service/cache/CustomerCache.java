@@ -0,0 +1,22 @@
+package pact.shopping.order.service.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import pact.shopping.order.dto.CustomerResponse;
+
+import java.util.Optional;
+
+@Component
+@AllArgsConstructor
+public class CustomerCache {
+    private final LoadingCache<Long, ETagged<CustomerResponse>> cache;
+
+    public Optional<CustomerResponse> findById(Long id) {
+        return Optional.ofNullable(cache.get(id)).map(ETagged::body);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+}
@@ -0,0 +1,26 @@
+package pact.shopping.order.service.cache;
+
+import feign.FeignException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Function;
+
+public record ETagged<T>(String etag, T body) {
+
+    public static <T> ETagged<T> of(ResponseEntity<T> response) {
+        return new ETagged<>(response.getHeaders().getETag(), response.getBody());
+    }
+
+    // sends the stored tag as If-None-Match and keeps this value when the server answers 304
+    public ETagged<T> revalidate(Function<String, ResponseEntity<T>> request) {
+        try {
+            return of(request.apply(etag));
+        } catch (FeignException e) {
+            if (etag != null && e.status() == HttpStatus.NOT_MODIFIED.value()) {
+                return this;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package pact.shopping.order.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import pact.shopping.order.dto.OrderResponse;
+
+import java.util.Optional;
+
+@Component
+@AllArgsConstructor
+public class OrderResponseCache {
+    private final Cache<String, OrderResponse> cache;
+
+    public Optional<OrderResponse> get(Long customerId, String idempotencyKey) {
+        return Optional.ofNullable(cache.getIfPresent(key(customerId, idempotencyKey)));
+    }
+
+    public void put(Long customerId, String idempotencyKey, OrderResponse response) {
+        cache.put(key(customerId, idempotencyKey), response);
+    }
+
+    private String key(Long customerId, String idempotencyKey) {
+        return customerId + ":" + idempotencyKey;
+    }
+}
@@ -0,0 +1,72 @@
+package pact.shopping.order.service.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import pact.shopping.order.dto.ProductResponse;
+import pact.shopping.order.service.changes.PricesChanged;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+public class ProductCache {
+    private final LoadingCache<Long, ETagged<ProductResponse>> cache;
+    private final TaskScheduler scheduler;
+    private final Duration reEvictAfter;
+
+    public ProductCache(LoadingCache<Long, ETagged<ProductResponse>> cache,
+                        TaskScheduler scheduler,
+                        @Value("${order.price-changes.re-evict-after:2s}") Duration reEvictAfter) {
+        this.cache = cache;
+        this.scheduler = scheduler;
+        this.reEvictAfter = reEvictAfter;
+    }
+
+    public List<ProductResponse> findAllByIds(Collection<Long> ids) {
+        return cache.getAll(ids).values().stream().map(ETagged::body).toList();
+    }
+
+    public Optional<List<ProductResponse>> findAllPresent(Collection<Long> ids) {
+        var present = cache.getAllPresent(ids);
+        if (present.size() < ids.size()) {
+            return Optional.empty();
+        }
+        return Optional.of(present.values().stream().map(ETagged::body).toList());
+    }
+
+    public void putAll(Collection<ProductResponse> products) {
+        products.forEach(product -> {
+            // an unchanged product keeps its tag so the next reload can still be answered with 304
+            var cached = cache.getIfPresent(product.getId());
+            if (cached == null || !product.equals(cached.body())) {
+                cache.put(product.getId(), new ETagged<>(null, product));
+            }
+        });
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    // product-service follows the same feed on its own, a reload made before it evicted would bring
+    // the old price back, so the products are evicted once more after it had time to catch up
+    @EventListener
+    public void onPricesChanged(PricesChanged event) {
+        evict(event);
+        scheduler.schedule(() -> evict(event), Instant.now().plus(reEvictAfter));
+    }
+
+    private void evict(PricesChanged event) {
+        if (event.all()) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateAll(event.productIds());
+        }
+    }
+}
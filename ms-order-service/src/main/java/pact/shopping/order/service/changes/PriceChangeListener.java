@@ -0,0 +1,141 @@
+package pact.shopping.order.service.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import pact.shopping.order.dto.PriceChangeEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+// Follows the price change feed of price-service and publishes PricesChanged for every batch,
+// so cached products are evicted as soon as one of their prices changes.
+@Slf4j
+@Component
+public class PriceChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final Duration maxBackoff;
+    private final HttpClient httpClient;
+    private volatile Thread thread;
+    private volatile boolean running;
+    private volatile String lastEventId;
+
+    public PriceChangeListener(ApplicationEventPublisher publisher,
+                               ObjectMapper objectMapper,
+                               @Value("${order.price-changes.url:}") String url,
+                               @Value("${order.price-changes.max-backoff:30s}") Duration maxBackoff) {
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.maxBackoff = maxBackoff;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (url.isBlank()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::follow, "price-changes");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void follow() {
+        var backoff = Duration.ofSeconds(1);
+        while (running) {
+            try {
+                stream();
+                backoff = Duration.ofSeconds(1);
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Price change feed disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                Thread.sleep(backoff.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+        }
+    }
+
+    private void stream() throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(url + "/v1/products/prices/changes"))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        var response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Price change feed answered " + response.statusCode());
+        }
+        try (Stream<String> lines = response.body()) {
+            var event = new StringBuilder();
+            var name = new StringBuilder();
+            var id = new StringBuilder();
+            for (var iterator = lines.iterator(); running && iterator.hasNext(); ) {
+                var line = iterator.next();
+                if (line.isEmpty()) {
+                    dispatch(name.toString(), id.toString(), event.toString());
+                    event.setLength(0);
+                    name.setLength(0);
+                    id.setLength(0);
+                } else if (line.startsWith("data:")) {
+                    event.append(line.substring(5).trim());
+                } else if (line.startsWith("event:")) {
+                    name.append(line.substring(6).trim());
+                } else if (line.startsWith("id:")) {
+                    id.append(line.substring(3).trim());
+                }
+            }
+        }
+    }
+
+    private void dispatch(String name, String id, String data) throws IOException {
+        if (data.isEmpty()) {
+            return;
+        }
+        var event = objectMapper.readValue(data, PriceChangeEvent.class);
+        switch (name) {
+            // a fresh subscription cannot tell what changed before it, and a resumed one misses the late commits
+            // price-service sent below its cursor while it was away, so every (re)connect drops everything
+            case "ready" -> publisher.publishEvent(PricesChanged.everything());
+            case "reset" -> publisher.publishEvent(PricesChanged.everything());
+            case "changes" -> publisher.publishEvent(PricesChanged.of(event.productIds()));
+            default -> {
+                return;
+            }
+        }
+        lastEventId = id;
+    }
+}
@@ -1,18 +1,19 @@
 package pact.shopping.order.service.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import pact.shopping.order.dto.CustomerResponse;
-import pact.shopping.order.dto.ProductResponse;
-
-import java.util.Optional;
 
 @Component
-@FeignClient(url="${feign.clients.customer}", name="CustomerClient")
+@FeignClient(url = "${feign.clients.customer.url}", name = "CustomerClient", contextId = "customer")
 public interface CustomerClient {
 
     @GetMapping(value = "/v1/customers/{id}")
-    Optional<CustomerResponse> findById(@PathVariable("id") Long id);
+    ResponseEntity<CustomerResponse> findById(@PathVariable("id") Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etag);
 }
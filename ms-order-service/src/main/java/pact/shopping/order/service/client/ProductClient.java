@@ -1,17 +1,36 @@
 package pact.shopping.order.service.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import pact.shopping.order.dto.ProductResponse;
+import pact.shopping.order.dto.StockReservationRequest;
+import pact.shopping.order.dto.StockReservationResponse;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Component
-@FeignClient(url="${feign.clients.product}", name = "ProductClient")
+@FeignClient(url = "${feign.clients.product.url}", name = "ProductClient", contextId = "product")
 public interface ProductClient {
 
     @GetMapping(value = "/v1/products/{id}")
-    Optional<ProductResponse> findById(@PathVariable("id") Long id);
+    ResponseEntity<ProductResponse> findById(@PathVariable("id") Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etag);
+
+    @GetMapping(value = "/v1/products")
+    List<ProductResponse> findAllByIds(@RequestParam("ids") Collection<Long> ids);
+
+    @PostMapping(value = "/v1/products/stock/reservations")
+    StockReservationResponse reserve(@RequestBody StockReservationRequest request);
+
+    @PostMapping(value = "/v1/products/stock/releases")
+    StockReservationResponse release(@RequestBody StockReservationRequest request);
 }
@@ -0,0 +1,43 @@
+package pact.shopping.order.service.deadline;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+public final class RequestDeadline {
+
+    // remaining milliseconds rather than an instant, so hops do not depend on synchronized clocks
+    public static final String HEADER = "X-Request-Deadline";
+
+    private static final ThreadLocal<Instant> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void set(Instant deadline) {
+        DEADLINE.set(deadline);
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    public static Optional<Duration> remaining() {
+        return Optional.ofNullable(DEADLINE.get()).map(deadline -> Duration.between(Instant.now(), deadline));
+    }
+
+    public static Runnable wrap(Runnable task) {
+        var deadline = DEADLINE.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            set(deadline);
+            try {
+                task.run();
+            } finally {
+                clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package pact.shopping.order.service.fx;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "order.fx.source", havingValue = "config", matchIfMissing = true)
+public class ConfigFxRateSource implements FxRateSource {
+
+    private final Environment environment;
+
+    public ConfigFxRateSource(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Map<String, BigDecimal> load() {
+        return Binder.get(environment)
+                .bind("order.fx.rates", Bindable.mapOf(String.class, BigDecimal.class))
+                .orElse(Map.of());
+    }
+}
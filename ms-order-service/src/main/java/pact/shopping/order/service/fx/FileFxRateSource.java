@@ -0,0 +1,40 @@
+package pact.shopping.order.service.fx;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Reads ISO=rate lines from a properties file, so rates can be replaced on disk without a restart.
+@Component
+@ConditionalOnProperty(name = "order.fx.source", havingValue = "file")
+public class FileFxRateSource implements FxRateSource {
+
+    private final Path file;
+
+    public FileFxRateSource(@Value("${order.fx.file:${java.io.tmpdir}/order-fx-rates.properties}") Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Map<String, BigDecimal> load() {
+        var properties = new Properties();
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var rates = new HashMap<String, BigDecimal>();
+        properties.forEach((iso, rate) -> rates.put(iso.toString().trim(), new BigDecimal(rate.toString().trim())));
+        return rates;
+    }
+}
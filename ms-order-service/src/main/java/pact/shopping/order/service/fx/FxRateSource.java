@@ -0,0 +1,9 @@
+package pact.shopping.order.service.fx;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public interface FxRateSource {
+    // units of each currency worth one unit of the base currency
+    Map<String, BigDecimal> load();
+}
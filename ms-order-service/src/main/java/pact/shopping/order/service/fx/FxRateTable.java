@@ -0,0 +1,37 @@
+package pact.shopping.order.service.fx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Holds the current rate snapshot. Readers take the reference once per order and never lock,
+// a refresh builds a whole new snapshot and swaps it in, keeping the previous one when it fails.
+@Slf4j
+@Component
+public class FxRateTable {
+
+    private final FxRateSource source;
+    private final String base;
+    private volatile FxRates rates = FxRates.EMPTY;
+
+    public FxRateTable(FxRateSource source,
+                       @Value("${order.fx.base:USD}") String base) {
+        this.source = source;
+        this.base = base;
+        refresh();
+    }
+
+    public FxRates current() {
+        return rates;
+    }
+
+    @Scheduled(fixedDelayString = "${order.fx.refresh-interval:PT5M}", initialDelayString = "${order.fx.refresh-interval:PT5M}")
+    public void refresh() {
+        try {
+            rates = FxRates.of(base, source.load());
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh exchange rates: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package pact.shopping.order.service.fx;
+
+import pact.shopping.order.service.exceptions.BadRequestException;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Immutable snapshot of the rate table. Every cross rate is worked out once when the snapshot is
+// built, so converting an amount is one lookup per currency, one multiplication and one rounding.
+public final class FxRates {
+
+    static final FxRates EMPTY = new FxRates(Map.of(), new BigDecimal[0], new int[0], new String[0]);
+
+    private final Map<String, Integer> index;
+    // rate from currency i to currency j at [i * n + j]
+    private final BigDecimal[] cross;
+    private final int[] scales;
+    private final String[] symbols;
+
+    private FxRates(Map<String, Integer> index, BigDecimal[] cross, int[] scales, String[] symbols) {
+        this.index = index;
+        this.cross = cross;
+        this.scales = scales;
+        this.symbols = symbols;
+    }
+
+    static FxRates of(String base, Map<String, BigDecimal> rates) {
+        var isos = new HashMap<String, BigDecimal>();
+        rates.forEach((iso, rate) -> {
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("Rate of '%s' must be positive".formatted(iso));
+            }
+            isos.put(iso.toUpperCase(Locale.ROOT), rate);
+        });
+        isos.putIfAbsent(base.toUpperCase(Locale.ROOT), BigDecimal.ONE);
+
+        var n = isos.size();
+        var index = new HashMap<String, Integer>();
+        var perBase = new BigDecimal[n];
+        var scales = new int[n];
+        var symbols = new String[n];
+        isos.forEach((iso, rate) -> {
+            var i = index.size();
+            index.put(iso, i);
+            perBase[i] = rate;
+            var currency = currency(iso);
+            scales[i] = currency == null || currency.getDefaultFractionDigits() < 0 ? 2 : currency.getDefaultFractionDigits();
+            symbols[i] = currency == null ? iso : currency.getSymbol(Locale.ROOT);
+        });
+
+        var cross = new BigDecimal[n * n];
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                cross[from * n + to] = from == to ? BigDecimal.ONE : perBase[to].divide(perBase[from], MathContext.DECIMAL64);
+            }
+        }
+        return new FxRates(Map.copyOf(index), cross, scales, symbols);
+    }
+
+    private static Currency currency(String iso) {
+        try {
+            return Currency.getInstance(iso);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public boolean supports(String iso) {
+        return iso != null && index.containsKey(iso);
+    }
+
+    public String symbol(String iso) {
+        return symbols[position(iso)];
+    }
+
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        if (amount == null || from.equals(to)) {
+            return amount;
+        }
+        var target = position(to);
+        return amount.multiply(cross[position(from) * scales.length + target])
+                .setScale(scales[target], RoundingMode.HALF_EVEN);
+    }
+
+    private int position(String iso) {
+        var position = index.get(iso);
+        if (position == null) {
+            throw new BadRequestException("No exchange rate for currency '%s'".formatted(iso));
+        }
+        return position;
+    }
+}
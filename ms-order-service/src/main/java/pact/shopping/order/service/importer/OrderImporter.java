@@ -0,0 +1,260 @@
+package pact.shopping.order.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pact.shopping.order.dto.*;
+import pact.shopping.order.mapping.OrderMapping;
+import pact.shopping.order.model.Order;
+import pact.shopping.order.model.enums.OrderStatusEnum;
+import pact.shopping.order.repository.OrderRepository;
+import pact.shopping.order.service.cache.CustomerCache;
+import pact.shopping.order.service.lookup.LookupExecutor;
+import pact.shopping.order.service.lookup.ProductLookup;
+import pact.shopping.order.service.outbox.OutboxWriter;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class OrderImporter {
+
+    private final ObjectMapper objectMapper;
+    private final OrderRepository repository;
+    private final OutboxWriter outboxWriter;
+    private final ProductLookup productLookup;
+    private final CustomerCache customerCache;
+    private final OrderMapping mapper;
+    private final LookupExecutor lookupExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    public OrderImporter(ObjectMapper objectMapper,
+                         OrderRepository repository,
+                         OutboxWriter outboxWriter,
+                         ProductLookup productLookup,
+                         CustomerCache customerCache,
+                         OrderMapping mapper,
+                         LookupExecutor lookupExecutor,
+                         TransactionTemplate transactionTemplate,
+                         EntityManager entityManager,
+                         @Value("${order.import.chunk-size:500}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.repository = repository;
+        this.outboxWriter = outboxWriter;
+        this.productLookup = productLookup;
+        this.customerCache = customerCache;
+        this.mapper = mapper;
+        this.lookupExecutor = lookupExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    public void importOrders(InputStream in, OutputStream out) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        var chunk = new ArrayList<Entry>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(parse(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                write(process(chunk), out);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(process(chunk), out);
+        }
+    }
+
+    private Entry parse(long lineNumber, String line) {
+        var entry = new Entry(lineNumber);
+        try {
+            entry.line = objectMapper.readValue(line, OrderImportLine.class);
+            if (entry.line.getCustomerId() == null || entry.line.getItems() == null || entry.line.getItems().isEmpty()) {
+                entry.fail("customerId and items are required");
+            } else if (entry.line.getItems().stream().anyMatch(item -> item == null || item.getId() == null)) {
+                entry.fail("Every item needs a product id");
+            } else if (entry.line.getItems().stream().anyMatch(item -> item.getQuantity() == null || item.getQuantity() <= 0)) {
+                entry.fail("Every item needs a positive quantity");
+            } else if (entry.line.getCreatedAt() != null && entry.line.getItems().stream().anyMatch(item -> item.getPrice() == null)) {
+                // today's price says nothing about what a past order was sold at
+                entry.fail("Every item of a line with a createdAt needs a price");
+            } else if (entry.line.getItems().stream().map(OrderImportItem::getPrice).filter(Objects::nonNull)
+                    .anyMatch(price -> price.getAmount() == null || price.getCurrency() == null || price.getCurrency().getIso() == null)) {
+                entry.fail("Every item price needs an amount and a currency");
+            }
+        } catch (JsonProcessingException e) {
+            entry.fail("Malformed line: " + e.getOriginalMessage());
+        }
+        return entry;
+    }
+
+    private List<Entry> process(List<Entry> chunk) {
+        var valid = chunk.stream().filter(entry -> entry.result == null).toList();
+        if (valid.isEmpty()) {
+            return chunk;
+        }
+
+        var customers = new HashMap<Long, CompletableFuture<Optional<CustomerResponse>>>();
+        var productIds = new LinkedHashSet<Long>();
+        valid.forEach(entry -> {
+            customers.computeIfAbsent(entry.line.getCustomerId(), id -> lookupExecutor.submit(() -> findCustomer(id)));
+            entry.line.getItems().forEach(item -> productIds.add(item.getId()));
+        });
+        var products = lookupExecutor.submitBatches(productIds, productLookup::findAllByIds);
+
+        List<CompletableFuture<?>> lookups = new ArrayList<>(products);
+        lookups.addAll(customers.values());
+        try {
+            lookupExecutor.awaitAll(lookups);
+        } catch (RuntimeException e) {
+            valid.forEach(entry -> entry.fail(e.getMessage()));
+            return chunk;
+        }
+
+        var productsById = new HashMap<Long, ProductResponse>();
+        products.forEach(batch -> batch.join().forEach(product -> productsById.put(product.getId(), product)));
+        var duplicates = findExistingKeys(valid);
+
+        var orders = new ArrayList<Order>();
+        valid.forEach(entry -> {
+            var customer = customers.get(entry.line.getCustomerId()).join();
+            if (customer.isEmpty()) {
+                entry.fail("Customer id '%s' not found".formatted(entry.line.getCustomerId()));
+            } else if (entry.line.getIdempotencyKey() != null
+                    && !duplicates.add(entry.line.getCustomerId() + ":" + entry.line.getIdempotencyKey())) {
+                entry.result = OrderImportResult.builder().line(entry.lineNumber).status(OrderImportStatusEnum.DUPLICATE).build();
+            } else {
+                toOrder(entry, customer.get(), productsById).ifPresent(orders::add);
+            }
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                outboxWriter.saveImported(orders);
+                entityManager.flush();
+                // keep the persistence context from growing with the size of the import
+                entityManager.clear();
+            });
+            valid.stream()
+                    .filter(entry -> entry.order != null)
+                    .forEach(entry -> entry.result = OrderImportResult.builder()
+                            .line(entry.lineNumber)
+                            .status(OrderImportStatusEnum.CREATED)
+                            .id(entry.order.getId())
+                            .build());
+        } catch (RuntimeException e) {
+            valid.stream().filter(entry -> entry.order != null).forEach(entry -> entry.fail(e.getMessage()));
+        }
+        return chunk;
+    }
+
+    private Optional<Order> toOrder(Entry entry, CustomerResponse customer, Map<Long, ProductResponse> products) {
+        var request = new OrderRequest();
+        request.setItems(entry.line.getItems().stream().map(item -> {
+            var requested = new OrderItemRequest();
+            requested.setId(item.getId());
+            requested.setQuantity(item.getQuantity());
+            return requested;
+        }).toList());
+        var order = mapper.to(request, entry.line.getCustomerId());
+
+        for (int i = 0; i < order.getItems().size(); i++) {
+            var item = order.getItems().get(i);
+            var product = products.get(item.getProductId());
+            if (product == null) {
+                entry.fail("Product id '%s' not found".formatted(item.getProductId()));
+                return Optional.empty();
+            }
+            item.setProductName(product.getName());
+            // a line sold at a known price keeps it, the others are priced as of now
+            var price = entry.line.getItems().get(i).getPrice();
+            item.setPrice(mapper.to(price != null ? withDiscount(price) : product.getCurrentPrice()));
+        }
+
+        order.setStatus(OrderStatusEnum.DONE);
+        order.setIdempotencyKey(entry.line.getIdempotencyKey());
+        order.setCustomerFirstName(customer.getFirstName());
+        order.setCustomerLastName(customer.getLastName());
+        if (entry.line.getCreatedAt() != null) {
+            order.setCreatedAt(entry.line.getCreatedAt());
+        }
+        entry.order = order;
+        return Optional.of(order);
+    }
+
+    private static PriceResponse withDiscount(PriceResponse price) {
+        if (price.getDiscount() != null) {
+            return price;
+        }
+        return PriceResponse.builder()
+                .amount(price.getAmount())
+                .discount(BigDecimal.ZERO)
+                .currency(price.getCurrency())
+                .build();
+    }
+
+    private Set<String> findExistingKeys(List<Entry> entries) {
+        var keys = entries.stream()
+                .map(entry -> entry.line.getIdempotencyKey())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        var existing = new HashSet<String>();
+        if (!keys.isEmpty()) {
+            repository.findAllByIdempotencyKeyIn(keys)
+                    .forEach(order -> existing.add(order.getCustomerId() + ":" + order.getIdempotencyKey()));
+        }
+        return existing;
+    }
+
+    private Optional<CustomerResponse> findCustomer(Long id) {
+        try {
+            return customerCache.findById(id);
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    private void write(List<Entry> chunk, OutputStream out) throws IOException {
+        for (Entry entry : chunk) {
+            out.write(objectMapper.writeValueAsBytes(entry.result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static class Entry {
+        private final long lineNumber;
+        private OrderImportLine line;
+        private Order order;
+        private OrderImportResult result;
+
+        private Entry(long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        private void fail(String error) {
+            order = null;
+            result = OrderImportResult.builder()
+                    .line(lineNumber)
+                    .status(OrderImportStatusEnum.FAILED)
+                    .error(error)
+                    .build();
+        }
+    }
+}
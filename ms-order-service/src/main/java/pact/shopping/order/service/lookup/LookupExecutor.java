@@ -0,0 +1,102 @@
+package pact.shopping.order.service.lookup;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pact.shopping.order.service.exceptions.GatewayTimeoutException;
+import pact.shopping.order.service.exceptions.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class LookupExecutor {
+
+    private final Executor executor;
+    private final Duration deadline;
+    private final boolean parallel;
+    private final int batchSize;
+
+    public LookupExecutor(@Qualifier("lookupTaskExecutor") Executor executor,
+                          @Value("${order.lookup.deadline:5s}") Duration deadline,
+                          @Value("${order.lookup.parallel:true}") boolean parallel,
+                          @Value("${order.lookup.batch-size:50}") int batchSize) {
+        this.executor = executor;
+        this.deadline = deadline;
+        this.parallel = parallel;
+        this.batchSize = batchSize;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> lookup) {
+        if (!parallel) {
+            return CompletableFuture.completedFuture(lookup.get());
+        }
+        try {
+            return CompletableFuture.supplyAsync(lookup, executor);
+        } catch (RejectedExecutionException e) {
+            // a saturated pool sheds the request instead of running the lookup on the request thread
+            return CompletableFuture.failedFuture(new ServiceUnavailableException("Lookup pool is full, retry later"));
+        }
+    }
+
+    public <K, V> List<CompletableFuture<List<V>>> submitBatches(Collection<K> keys, Function<List<K>, List<V>> lookup) {
+        List<CompletableFuture<List<V>>> batches = new ArrayList<>();
+        List<K> batch = new ArrayList<>(batchSize);
+        for (K key : keys) {
+            batch.add(key);
+            if (batch.size() == batchSize) {
+                var keysOfBatch = batch;
+                batches.add(submit(() -> lookup.apply(keysOfBatch)));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            var keysOfBatch = batch;
+            batches.add(submit(() -> lookup.apply(keysOfBatch)));
+        }
+        return batches;
+    }
+
+    public void awaitAll(List<? extends CompletableFuture<?>> lookups) {
+        // the first failing lookup completes the whole batch so the others can be cancelled
+        var all = CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new));
+        lookups.forEach(lookup -> lookup.whenComplete((result, ex) -> {
+            if (ex != null) {
+                all.completeExceptionally(ex);
+            }
+        }));
+
+        try {
+            all.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(lookups);
+            throw new GatewayTimeoutException("Lookups did not complete within %s".formatted(deadline));
+        } catch (InterruptedException e) {
+            cancel(lookups);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for lookups", e);
+        } catch (ExecutionException e) {
+            cancel(lookups);
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private void cancel(List<? extends CompletableFuture<?>> lookups) {
+        lookups.forEach(lookup -> lookup.cancel(true));
+    }
+
+    private RuntimeException unwrap(Throwable cause) {
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,35 @@
+package pact.shopping.order.service.lookup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pact.shopping.order.dto.ProductResponse;
+import pact.shopping.order.service.client.ProductClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+// Fresh product reads for stock checks, coalesced per product id across concurrent orders
+@Component
+public class ProductLookup {
+
+    private final ProductClient productClient;
+    private final SingleFlight<Long, ProductResponse> flight;
+
+    public ProductLookup(ProductClient productClient,
+                         MeterRegistry registry,
+                         @Value("${order.lookup.single-flight.max-wait:3s}") Duration maxWait) {
+        this.productClient = productClient;
+        this.flight = new SingleFlight<>("products", maxWait, registry);
+    }
+
+    public List<ProductResponse> findAllByIds(Collection<Long> ids) {
+        var products = flight.getAll(ids, missing -> productClient.findAllByIds(missing).stream()
+                .collect(toMap(ProductResponse::getId, Function.identity())));
+        return ids.stream().distinct().filter(products::containsKey).map(products::get).toList();
+    }
+}
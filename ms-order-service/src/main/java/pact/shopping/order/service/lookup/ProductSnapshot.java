@@ -0,0 +1,34 @@
+package pact.shopping.order.service.lookup;
+
+import pact.shopping.order.dto.PriceResponse;
+import pact.shopping.order.dto.ProductResponse;
+import pact.shopping.order.service.exceptions.NotFoundException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class ProductSnapshot {
+
+    private final Map<Long, ProductResponse> products = new HashMap<>();
+    private final Map<Long, PriceResponse> prices = new HashMap<>();
+
+    public static ProductSnapshot of(List<CompletableFuture<List<ProductResponse>>> lookups) {
+        var snapshot = new ProductSnapshot();
+        lookups.forEach(lookup -> lookup.join().forEach(product -> snapshot.products.put(product.getId(), product)));
+        return snapshot;
+    }
+
+    public ProductResponse getProduct(Long productId) {
+        var product = products.get(productId);
+        if (product == null) {
+            throw new NotFoundException("Product id '%s' not found".formatted(productId));
+        }
+        return product;
+    }
+
+    public PriceResponse getPrice(Long productId) {
+        return prices.computeIfAbsent(productId, id -> getProduct(id).getCurrentPrice());
+    }
+}
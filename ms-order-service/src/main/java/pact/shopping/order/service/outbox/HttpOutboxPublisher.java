@@ -0,0 +1,31 @@
+package pact.shopping.order.service.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import pact.shopping.order.model.OutboxEvent;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "order.outbox.publisher", havingValue = "http")
+public class HttpOutboxPublisher implements OutboxPublisher {
+
+    private final RestClient restClient;
+
+    public HttpOutboxPublisher(RestClient.Builder builder,
+                               @Value("${order.outbox.http.url}") String url) {
+        this.restClient = builder.baseUrl(url).build();
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(events)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,9 @@
+package pact.shopping.order.service.outbox;
+
+import pact.shopping.order.model.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxPublisher {
+    void publish(List<OutboxEvent> events);
+}
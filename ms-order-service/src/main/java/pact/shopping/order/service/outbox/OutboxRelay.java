@@ -0,0 +1,77 @@
+package pact.shopping.order.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pact.shopping.order.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository repository;
+    private final OutboxPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter published;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository repository,
+                       OutboxPublisher publisher,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry registry,
+                       @Value("${order.outbox.batch-size:100}") int batchSize) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.published = Counter.builder("outbox.events.published").register(registry);
+        Gauge.builder("outbox.events.pending", pending, AtomicLong::get).register(registry);
+        Gauge.builder("outbox.lag", lagMillis, AtomicLong::get).baseUnit("milliseconds").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.interval:PT1S}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            // the batch stays unpublished and is retried on the next run
+            log.warn("Could not relay outbox events: {}", e.getMessage());
+        }
+        updateLag();
+    }
+
+    private int relayBatch() {
+        var events = repository.findUnpublished(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        publisher.publish(events);
+
+        var now = LocalDateTime.now();
+        events.forEach(event -> event.setPublishedAt(now));
+        published.increment(events.size());
+        return events.size();
+    }
+
+    private void updateLag() {
+        pending.set(repository.countByPublishedAtIsNull());
+        lagMillis.set(repository.findFirstByPublishedAtIsNullOrderByIdAsc()
+                .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+}
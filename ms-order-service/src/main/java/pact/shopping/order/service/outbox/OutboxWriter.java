@@ -0,0 +1,61 @@
+package pact.shopping.order.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pact.shopping.order.mapping.OrderMapping;
+import pact.shopping.order.model.Order;
+import pact.shopping.order.model.OutboxEvent;
+import pact.shopping.order.repository.OrderRepository;
+import pact.shopping.order.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@AllArgsConstructor
+public class OutboxWriter {
+    private static final String ORDER = "Order";
+    private static final String ORDER_CREATED = "OrderCreated";
+    private static final String ORDER_IMPORTED = "OrderImported";
+
+    private final OrderRepository orderRepository;
+    private final OutboxEventRepository outboxRepository;
+    private final OrderMapping mapper;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public Order saveCreated(Order order) {
+        var saved = orderRepository.save(order);
+        outboxRepository.save(event(saved, ORDER_CREATED));
+        return saved;
+    }
+
+    // back-loaded orders get an event of their own, so consumers can tell them from orders placed now
+    @Transactional
+    public List<Order> saveImported(List<Order> orders) {
+        var saved = orderRepository.saveAll(orders);
+        outboxRepository.saveAll(saved.stream().map(order -> event(order, ORDER_IMPORTED)).toList());
+        return saved;
+    }
+
+    private OutboxEvent event(Order order, String type) {
+        return OutboxEvent.builder()
+                .aggregateType(ORDER)
+                .aggregateId(order.getId())
+                .type(type)
+                .payload(toJson(order))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private String toJson(Order order) {
+        try {
+            return objectMapper.writeValueAsString(mapper.to(order));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package pact.shopping.order.service.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+@Component
+public class OrderPipeline {
+
+    private final Executor executor;
+    private final Semaphore capacity;
+
+    public OrderPipeline(@Qualifier("orderPipelineTaskExecutor") Executor executor,
+                         @Value("${order.pipeline.capacity:1000}") int capacity) {
+        this.executor = executor;
+        this.capacity = new Semaphore(capacity);
+    }
+
+    public boolean tryAcquire() {
+        return capacity.tryAcquire();
+    }
+
+    public void release() {
+        capacity.release();
+    }
+
+    // runs a task admitted by tryAcquire and gives its slot back once it is done
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Order pipeline task failed", e);
+            } finally {
+                capacity.release();
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package pact.shopping.order.service.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pact.shopping.order.model.Order;
+import pact.shopping.order.model.enums.OrderStatusEnum;
+import pact.shopping.order.repository.OrderRepository;
+import pact.shopping.order.service.OrderService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Submitted orders are only queued in memory, so a restart or a transient failure leaves them PENDING,
+// and a restart while one is processed leaves it PROCESSING. Orders whose claim is older than claim-timeout
+// are made PENDING again and handed back to the pipeline, where OrderService.process lets only one run take them.
+@Slf4j
+@Component
+public class PendingOrderSweeper {
+
+    private final OrderRepository repository;
+    private final OrderService orderService;
+    private final OrderPipeline pipeline;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration claimTimeout;
+
+    public PendingOrderSweeper(OrderRepository repository,
+                               OrderService orderService,
+                               OrderPipeline pipeline,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${order.pipeline.sweep-batch-size:100}") int batchSize,
+                               @Value("${order.pipeline.claim-timeout:2m}") Duration claimTimeout) {
+        this.repository = repository;
+        this.orderService = orderService;
+        this.pipeline = pipeline;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${order.pipeline.sweep-interval:PT30S}")
+    public void sweep() {
+        int claimed;
+        do {
+            claimed = sweepBatch();
+        } while (claimed == batchSize);
+    }
+
+    // only as many orders are claimed as the pipeline has room for, the rest waits for the next run
+    private int sweepBatch() {
+        var permits = 0;
+        while (permits < batchSize && pipeline.tryAcquire()) {
+            permits++;
+        }
+        if (permits == 0) {
+            return 0;
+        }
+        List<Long> ids = List.of();
+        try {
+            var limit = permits;
+            ids = transactionTemplate.execute(status -> claim(limit));
+        } catch (RuntimeException e) {
+            log.warn("Could not claim pending orders: {}", e.getMessage());
+        } finally {
+            for (int i = ids.size(); i < permits; i++) {
+                pipeline.release();
+            }
+        }
+        ids.forEach(id -> pipeline.execute(() -> orderService.process(id)));
+        return ids.size();
+    }
+
+    private List<Long> claim(int limit) {
+        var now = LocalDateTime.now();
+        var orders = repository.findUnclaimed(List.of(OrderStatusEnum.PENDING, OrderStatusEnum.PROCESSING),
+                now.minus(claimTimeout), PageRequest.of(0, limit));
+        // the version bump makes a run that is still going lose its final write instead of completing twice
+        orders.forEach(order -> {
+            order.setStatus(OrderStatusEnum.PENDING);
+            order.setClaimedAt(now);
+        });
+        return orders.stream().map(Order::getId).toList();
+    }
+}
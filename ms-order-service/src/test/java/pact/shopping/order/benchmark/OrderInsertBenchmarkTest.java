@@ -0,0 +1,183 @@
+package pact.shopping.order.benchmark;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import pact.shopping.order.model.Order;
+import pact.shopping.order.model.OrderItem;
+import pact.shopping.order.model.OrderPrice;
+import pact.shopping.order.model.PriceCurrency;
+import pact.shopping.order.model.enums.OrderStatusEnum;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures order inserts against the local database, once the way IDENTITY ids insert them
+ * (one statement and one generated key round trip per row, on scratch tables with AUTO_INCREMENT ids)
+ * and once through Hibernate with the table generator and the configured JDBC batch size.
+ * Everything written is removed afterwards.
+ * Run with {@code mvn test -Dtest=OrderInsertBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@ActiveProfiles({"local"})
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderInsertBenchmarkTest {
+
+    private static final int ORDERS = 200;
+    private static final int ITEMS_PER_ORDER = 50;
+    // orders of a customer id no real customer has, so they can be told apart and removed
+    private static final long CUSTOMER_ID = -1L;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createScratchTables() {
+        jdbcTemplate.execute("create table benchmark_ordered like ordered");
+        jdbcTemplate.execute("alter table benchmark_ordered modify id bigint not null auto_increment");
+        jdbcTemplate.execute("create table benchmark_ordered_item like ordered_item");
+        jdbcTemplate.execute("alter table benchmark_ordered_item modify id bigint not null auto_increment");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("drop table if exists benchmark_ordered_item");
+        jdbcTemplate.execute("drop table if exists benchmark_ordered");
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("delete from OrderItem i where i.order.id in (select o.id from Order o where o.customerId = :customerId)")
+                    .setParameter("customerId", CUSTOMER_ID)
+                    .executeUpdate();
+            entityManager.createQuery("delete from Order o where o.customerId = :customerId")
+                    .setParameter("customerId", CUSTOMER_ID)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    void insertOrders() {
+        // warm up the connection pool, the id pools and the JIT
+        runIdentity(20);
+        runBatched(20);
+
+        var identity = runIdentity(ORDERS);
+        var batched = runBatched(ORDERS);
+
+        log.info("identity, one row per statement: {} rows/s", Math.round(identity));
+        log.info("table generator, jdbc batching:  {} rows/s", Math.round(batched));
+        assertEquals(ORDERS + 20L, count("select count(*) from benchmark_ordered_item") / ITEMS_PER_ORDER);
+        assertEquals(ORDERS + 20L, count("select count(*) from ordered where customer_id = " + CUSTOMER_ID));
+    }
+
+    private double runIdentity(int orders) {
+        var start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                var order = order();
+                var orderId = insert(order);
+                order.getItems().forEach(item -> insert(orderId, item));
+            });
+        }
+        return rowsPerSecond(orders, start);
+    }
+
+    private double runBatched(int orders) {
+        var start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            transactionTemplate.executeWithoutResult(status -> entityManager.persist(order()));
+        }
+        return rowsPerSecond(orders, start);
+    }
+
+    private long insert(Order order) {
+        var keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement("""
+                    insert into benchmark_ordered (uuid, created_at, status, customer_id, customer_first_name, customer_last_name)
+                    values (?, ?, ?, ?, ?, ?)""", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, order.getUuid());
+            statement.setTimestamp(2, Timestamp.valueOf(order.getCreatedAt()));
+            statement.setString(3, order.getStatus().name());
+            statement.setLong(4, order.getCustomerId());
+            statement.setString(5, order.getCustomerFirstName());
+            statement.setString(6, order.getCustomerLastName());
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    private void insert(long orderId, OrderItem item) {
+        jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement("""
+                    insert into benchmark_ordered_item (order_id, product_id, product_name, quantity, amount, discount, iso, symbol)
+                    values (?, ?, ?, ?, ?, ?, ?, ?)""", Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, orderId);
+            statement.setLong(2, item.getProductId());
+            statement.setString(3, item.getProductName());
+            statement.setInt(4, item.getQuantity());
+            statement.setBigDecimal(5, item.getPrice().getAmount());
+            statement.setBigDecimal(6, item.getPrice().getDiscount());
+            statement.setString(7, item.getPrice().getCurrency().getIso());
+            statement.setString(8, item.getPrice().getCurrency().getSymbol());
+            return statement;
+        }, new GeneratedKeyHolder());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static double rowsPerSecond(int orders, long start) {
+        var seconds = (System.nanoTime() - start) / 1_000_000_000d;
+        return orders * (ITEMS_PER_ORDER + 1) / seconds;
+    }
+
+    private Order order() {
+        var items = new ArrayList<OrderItem>();
+        var order = Order.builder()
+                .uuid(UUID.randomUUID().toString())
+                .createdAt(LocalDateTime.now())
+                .status(OrderStatusEnum.DONE)
+                .customerId(CUSTOMER_ID)
+                .customerFirstName("John")
+                .customerLastName("Fox")
+                .items(items)
+                .build();
+        for (long productId = 1; productId <= ITEMS_PER_ORDER; productId++) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .productId(productId)
+                    .productName("Product " + productId)
+                    .quantity(1)
+                    .price(OrderPrice.builder()
+                            .amount(BigDecimal.TEN)
+                            .discount(BigDecimal.ZERO)
+                            .currency(PriceCurrency.builder().symbol("$").iso("USD").build())
+                            .build())
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,158 @@
+package pact.shopping.order.config;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HedgingClientTest {
+
+    private static final Request REQUEST = Request.create(Request.HttpMethod.GET, "http://product/v1/products/10",
+            Map.of(), null, StandardCharsets.UTF_8, null);
+    private static final Request.Options OPTIONS = new Request.Options();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Deque<Attempt> attempts = new ArrayDeque<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicReference<Thread> lastThread = new AtomicReference<>();
+    private HedgingClient client;
+
+    @AfterEach
+    void close() throws IOException {
+        client.close();
+    }
+
+    @Test
+    void testHedgesOnlyWhatTheBudgetEarned() throws IOException {
+        client = client(0.5);
+        attempts.add(request -> response(request, 200));
+        attempts.add(request -> {
+            sleep(300);
+            return response(request, 200);
+        });
+        attempts.add(request -> response(request, 201));
+        attempts.add(request -> response(request, 200));
+
+        // the warm-up earns half a token, the first slow request the other half and spends it
+        client.execute(REQUEST, OPTIONS);
+        var hedged = client.execute(REQUEST, OPTIONS);
+        var unhedged = client.execute(REQUEST, OPTIONS);
+
+        assertThat(hedged.status(), is(201));
+        assertThat(unhedged.status(), is(200));
+        assertThat(registry.get("feign.client.hedges").counter().count(), is(1.0));
+        assertThat(calls.get(), is(4));
+        // without a token left the request never leaves the calling thread
+        assertThat(lastThread.get(), is(Thread.currentThread()));
+    }
+
+    @Test
+    void testClosesTheResponseOfTheLosingAttempt() throws Exception {
+        client = client(1);
+        var closed = new AtomicBoolean();
+        attempts.add(request -> response(request, 200));
+        attempts.add(request -> {
+            sleep(300);
+            return Response.builder()
+                    .request(request)
+                    .status(200)
+                    .body(new ByteArrayInputStream(new byte[0]) {
+                        @Override
+                        public void close() {
+                            closed.set(true);
+                        }
+                    }, 0)
+                    .build();
+        });
+        attempts.add(request -> response(request, 201));
+
+        client.execute(REQUEST, OPTIONS);
+        var response = client.execute(REQUEST, OPTIONS);
+
+        assertThat(response.status(), is(201));
+        assertThat(registry.get("feign.client.hedge.wins").counter().count(), is(1.0));
+        var deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!closed.get() && System.nanoTime() < deadline) {
+            sleep(10);
+        }
+        assertThat(closed.get(), is(true));
+    }
+
+    @Test
+    void testFailsOnlyOnceEveryAttemptFailed() {
+        client = client(1);
+        attempts.add(request -> response(request, 200));
+        attempts.add(request -> {
+            sleep(300);
+            throw new IOException("primary");
+        });
+        attempts.add(request -> {
+            throw new IOException("hedge");
+        });
+
+        var start = System.nanoTime();
+        var failure = assertThrows(IOException.class, () -> {
+            client.execute(REQUEST, OPTIONS);
+            client.execute(REQUEST, OPTIONS);
+        });
+
+        assertThat(failure.getMessage(), is("primary"));
+        assertThat(Duration.ofNanos(System.nanoTime() - start), greaterThanOrEqualTo(Duration.ofMillis(250)));
+        assertThat(calls.get(), is(3));
+    }
+
+    private HedgingClient client(double budget) {
+        var properties = new FeignTransportProperties.Hedge();
+        properties.setEnabled(true);
+        properties.setMinSamples(1);
+        properties.setMinDelay(Duration.ofMillis(50));
+        properties.setBudget(budget);
+        properties.setMaxBurst(1);
+        Client delegate = (request, options) -> {
+            calls.incrementAndGet();
+            lastThread.set(Thread.currentThread());
+            Attempt attempt;
+            synchronized (attempts) {
+                attempt = attempts.poll();
+            }
+            return attempt.execute(request);
+        };
+        return new HedgingClient(delegate, "product", properties, registry, Bulkhead.ofDefaults("product"),
+                Executors.newFixedThreadPool(4), 4);
+    }
+
+    private static Response response(Request request, int status) {
+        return Response.builder().request(request).status(status).body(new byte[0]).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Attempt {
+        Response execute(Request request) throws IOException;
+    }
+}
@@ -13,13 +13,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 import pact.shopping.order.dto.CustomerResponse;
 import pact.shopping.order.service.client.CustomerClient;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -28,7 +28,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 @ActiveProfiles({"local"})
 @SpringBootTest({
         // overriding provider address
-        "feign.clients.customer: http://localhost:8888"
+        "feign.clients.customer.url: http://localhost:8888"
 })
 @ExtendWith(PactConsumerTestExt.class)
 @PactTestFor(providerName = "CustomerService")
@@ -75,12 +75,24 @@ public class CustomerClientPactTest {
                 .toPact();
     }
 
+    @Pact(consumer = "OrderService")
+    public RequestResponsePact singleCustomerNotModified(PactDslWithProvider builder) {
+        return builder
+                .given("customer with ID 10 exists", "id", 10)
+                .uponReceiving("customer with ID 10 not modified")
+                .path("/v1/customers/10")
+                .headers(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .willRespondWith()
+                .status(304)
+                .toPact();
+    }
+
     @Test
     @PactTestFor(pactMethod = "singleCustomer")
     void testSingleCustomer() {
-        Optional<CustomerResponse> optionalCustomer = customerClient.findById(10L);
+        CustomerResponse customer = customerClient.findById(10L, null).getBody();
 
-        assertThat(optionalCustomer.orElseGet(CustomerResponse::new), is(equalTo(CustomerResponse.builder()
+        assertThat(customer, is(equalTo(CustomerResponse.builder()
                 .id(10L)
                 .firstName("John")
                 .lastName("Fox")
@@ -93,10 +105,21 @@ public class CustomerClientPactTest {
     @PactTestFor(pactMethod = "singleCustomerNotExists")
     void testSingleCustomerNotExists() {
         try {
-            customerClient.findById(10L);
+            customerClient.findById(10L, null);
             fail("Expected service call to throw an exception");
         } catch (FeignException ex) {
             assertThat(ex.getMessage(), containsString("Not Found"));
         }
     }
+
+    @Test
+    @PactTestFor(pactMethod = "singleCustomerNotModified")
+    void testSingleCustomerNotModified() {
+        try {
+            customerClient.findById(10L, "\"0\"");
+            fail("Expected service call to answer 304");
+        } catch (FeignException ex) {
+            assertThat(ex.status(), is(equalTo(304)));
+        }
+    }
 }
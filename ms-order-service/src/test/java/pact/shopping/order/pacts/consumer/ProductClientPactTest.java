@@ -1,6 +1,7 @@
 package pact.shopping.order.pacts.consumer;
 
 
+import au.com.dius.pact.consumer.dsl.PactDslJsonArray;
 import au.com.dius.pact.consumer.dsl.PactDslJsonBody;
 import au.com.dius.pact.consumer.dsl.PactDslWithProvider;
 import au.com.dius.pact.consumer.junit.MockServerConfig;
@@ -17,13 +18,16 @@ import org.springframework.test.context.ActiveProfiles;
 import pact.shopping.order.dto.CurrencyDto;
 import pact.shopping.order.dto.PriceResponse;
 import pact.shopping.order.dto.ProductResponse;
+import pact.shopping.order.dto.StockReservationItem;
+import pact.shopping.order.dto.StockReservationRequest;
+import pact.shopping.order.dto.StockReservationResponse;
 import pact.shopping.order.service.client.ProductClient;
 
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -32,7 +36,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 @ActiveProfiles({"local"})
 @SpringBootTest({
         // overriding provider address
-        "feign.clients.product: http://localhost:8888"
+        "feign.clients.product.url: http://localhost:8888"
 })
 @ExtendWith(PactConsumerTestExt.class)
 @PactTestFor(providerName = "ProductService")
@@ -88,12 +92,153 @@ public class ProductClientPactTest {
                 .toPact();
     }
 
+    @Pact(consumer = "OrderService")
+    public RequestResponsePact multipleProducts(PactDslWithProvider builder) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        return builder
+                .given("products with ID 10 and 11 exist")
+                .uponReceiving("products with ID 10 and 11 exist")
+                .path("/v1/products")
+                .query("ids=10&ids=11")
+                .willRespondWith()
+                .status(200)
+                .headers(headers)
+                .body(
+                        new PactDslJsonArray()
+                            .object()
+                                .integerType("id", 10L)
+                                .stringType("name", "Samsung TV Neo QLED 8K 85 QE85QN800B")
+                                .stringType("category", "ELECTRONICS")
+                                .integerType("quantity", 10)
+                                .minArrayLike("prices", 1)
+                                    .integerType("id", 1L)
+                                    .numberType("amount", 145.78)
+                                    .numberType("discount", 0.0)
+                                    .object("currency")
+                                        .stringType("symbol", "$")
+                                        .stringType("iso", "USD")
+                                    .closeObject()
+                                .closeObject()
+                                .closeArray()
+                                .object("currentPrice")
+                                    .integerType("id", 1L)
+                                    .numberType("amount", 145.78)
+                                    .numberType("discount", 0.0)
+                                    .object("currency")
+                                        .stringType("symbol", "$")
+                                        .stringType("iso", "USD")
+                                    .closeObject()
+                                .closeObject()
+                            .closeObject()
+                            .object()
+                                .integerType("id", 11L)
+                                .stringType("name", "Apple MacBook Pro 14")
+                                .stringType("category", "COMPUTERS")
+                                .integerType("quantity", 5)
+                                .minArrayLike("prices", 1)
+                                    .integerType("id", 2L)
+                                    .numberType("amount", 1999.0)
+                                    .numberType("discount", 0.0)
+                                    .object("currency")
+                                        .stringType("symbol", "$")
+                                        .stringType("iso", "USD")
+                                    .closeObject()
+                                .closeObject()
+                                .closeArray()
+                                .object("currentPrice")
+                                    .integerType("id", 2L)
+                                    .numberType("amount", 1999.0)
+                                    .numberType("discount", 0.0)
+                                    .object("currency")
+                                        .stringType("symbol", "$")
+                                        .stringType("iso", "USD")
+                                    .closeObject()
+                                .closeObject()
+                            .closeObject()
+                )
+                .toPact();
+    }
+
+    @Pact(consumer = "OrderService")
+    public RequestResponsePact reserveStock(PactDslWithProvider builder) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        return builder
+                .given("products with ID 10 and 11 have stock")
+                .uponReceiving("stock reservation for products with ID 10 and 11")
+                .path("/v1/products/stock/reservations")
+                .method("POST")
+                .headers(headers)
+                .body(
+                        """
+                            {
+                                "orderUuid": "4f0b2a6e-2f3c-4a8e-9b1d-7c5e8a9d3f21",
+                                "items": [
+                                    { "productId": 10, "quantity": 2 },
+                                    { "productId": 11, "quantity": 1 }
+                                ]
+                            }
+                                """
+                )
+                .willRespondWith()
+                .status(200)
+                .headers(headers)
+                .body(
+                        new PactDslJsonBody()
+                            .booleanType("reserved", true)
+                            .eachLike("items", 2)
+                                .integerType("productId", 10L)
+                                .integerType("quantity", 2)
+                                .stringValue("status", "RESERVED")
+                            .closeObject()
+                            .closeArray()
+                )
+                .toPact();
+    }
+
+    @Pact(consumer = "OrderService")
+    public RequestResponsePact reserveStockUnavailable(PactDslWithProvider builder) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        return builder
+                .given("product with ID 10 is out of stock", "id", 10)
+                .uponReceiving("stock reservation for product with ID 10 out of stock")
+                .path("/v1/products/stock/reservations")
+                .method("POST")
+                .headers(headers)
+                .body(
+                        """
+                            {
+                                "orderUuid": "4f0b2a6e-2f3c-4a8e-9b1d-7c5e8a9d3f21",
+                                "items": [
+                                    { "productId": 10, "quantity": 2 }
+                                ]
+                            }
+                                """
+                )
+                .willRespondWith()
+                .status(200)
+                .headers(headers)
+                .body(
+                        new PactDslJsonBody()
+                            .booleanValue("reserved", false)
+                            .eachLike("items", 1)
+                                .integerType("productId", 10L)
+                                .integerType("quantity", 2)
+                                .stringValue("status", "INSUFFICIENT_STOCK")
+                            .closeObject()
+                            .closeArray()
+                )
+                .toPact();
+    }
+
     @Test
     @PactTestFor(pactMethod = "singleProduct")
     void testSingleProduct() {
-        Optional<ProductResponse> optionalProduct = productClient.findById(10L);
+        ProductResponse product = productClient.findById(10L, null).getBody();
 
-        assertThat(optionalProduct.orElseGet(ProductResponse::new), is(equalTo(ProductResponse.builder()
+        assertThat(product, is(equalTo(ProductResponse.builder()
                 .id(10L)
                 .name("Samsung TV Neo QLED 8K 85 QE85QN800B")
                 .category("ELECTRONICS")
@@ -110,11 +255,45 @@ public class ProductClientPactTest {
 
     }
 
+    @Test
+    @PactTestFor(pactMethod = "multipleProducts")
+    void testMultipleProducts() {
+        List<ProductResponse> products = productClient.findAllByIds(List.of(10L, 11L));
+
+        assertThat(products, hasSize(2));
+        assertThat(products.get(0).getId(), is(equalTo(10L)));
+        assertThat(products.get(0).getCurrentPrice().getAmount(), is(equalTo(BigDecimal.valueOf(145.78))));
+        assertThat(products.get(1).getId(), is(equalTo(11L)));
+        assertThat(products.get(1).getName(), is(equalTo("Apple MacBook Pro 14")));
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "reserveStock")
+    void testReserveStock() {
+        StockReservationResponse response = productClient.reserve(new StockReservationRequest("4f0b2a6e-2f3c-4a8e-9b1d-7c5e8a9d3f21", List.of(
+                StockReservationItem.builder().productId(10L).quantity(2).build(),
+                StockReservationItem.builder().productId(11L).quantity(1).build())));
+
+        assertThat(response.getReserved(), is(true));
+        assertThat(response.getItems(), hasSize(2));
+        assertThat(response.getItems().get(0).getStatus(), is(equalTo("RESERVED")));
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "reserveStockUnavailable")
+    void testReserveStockUnavailable() {
+        StockReservationResponse response = productClient.reserve(new StockReservationRequest("4f0b2a6e-2f3c-4a8e-9b1d-7c5e8a9d3f21", List.of(
+                StockReservationItem.builder().productId(10L).quantity(2).build())));
+
+        assertThat(response.getReserved(), is(false));
+        assertThat(response.getItems().get(0).getStatus(), is(equalTo("INSUFFICIENT_STOCK")));
+    }
+
     @Test
     @PactTestFor(pactMethod = "singleProductNotExists")
     void testSingleProductNotExists() {
         try {
-            productClient.findById(10L);
+            productClient.findById(10L, null);
             fail("Expected service call to throw an exception");
         } catch (FeignException ex) {
             assertThat(ex.getMessage(), containsString("Not Found"));
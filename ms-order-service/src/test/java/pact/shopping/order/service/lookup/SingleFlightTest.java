@@ -0,0 +1,116 @@
+package pact.shopping.order.service.lookup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pact.shopping.order.service.exceptions.GatewayTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<CompletableFuture<?>> background = new ArrayList<>();
+
+    @AfterEach
+    void releaseLeader() {
+        release.countDown();
+        background.forEach(future -> future.handle((value, e) -> null).join());
+    }
+
+    @Test
+    void testSharesTheFailureOfTheCallInFlight() throws Exception {
+        var flight = new SingleFlight<Long, String>("products", Duration.ofSeconds(5), registry);
+        var failure = new IllegalStateException("product-service down");
+        var leader = async(() -> flight.get(10L, key -> {
+            await();
+            throw failure;
+        }));
+        entered.await(1, TimeUnit.SECONDS);
+        var follower = async(() -> flight.get(10L, key -> "not called"));
+        awaitShared(1);
+
+        release.countDown();
+
+        assertThat(cause(leader), sameInstance(failure));
+        assertThat(cause(follower), sameInstance(failure));
+    }
+
+    @Test
+    void testStopsWaitingAfterMaxWait() throws Exception {
+        var flight = new SingleFlight<Long, String>("products", Duration.ofMillis(100), registry);
+        async(() -> flight.get(10L, key -> {
+            await();
+            return "slow";
+        }));
+        entered.await(1, TimeUnit.SECONDS);
+
+        var start = System.nanoTime();
+        assertThrows(GatewayTimeoutException.class, () -> flight.get(10L, key -> "not called"));
+        assertThat(Duration.ofNanos(System.nanoTime() - start), greaterThanOrEqualTo(Duration.ofMillis(100)));
+    }
+
+    @Test
+    void testJoinsKeysInFlightAndCallsForTheRest() throws Exception {
+        var flight = new SingleFlight<Long, String>("products", Duration.ofSeconds(5), registry);
+        async(() -> flight.get(10L, key -> {
+            await();
+            return "ten";
+        }));
+        entered.await(1, TimeUnit.SECONDS);
+
+        var called = new ArrayList<Long>();
+        var result = async(() -> flight.getAll(Arrays.asList(10L, 11L, null), keys -> {
+            called.addAll(keys);
+            return Map.of(11L, "eleven");
+        }));
+        awaitShared(1);
+        release.countDown();
+
+        assertThat(result.get(1, TimeUnit.SECONDS), is(Map.of(10L, "ten", 11L, "eleven")));
+        assertThat(called, contains(11L));
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        var future = CompletableFuture.supplyAsync(task);
+        background.add(future);
+        return future;
+    }
+
+    private void await() {
+        entered.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitShared(double count) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (registry.get("lookup.single.flight").tag("outcome", "shared").counter().count() < count
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static Throwable cause(CompletableFuture<?> future) {
+        var e = assertThrows(CompletionException.class, future::join);
+        return e.getCause();
+    }
+}
@@ -0,0 +1,13 @@
+-- Seeds the pooled table generator of price (MySQL 8).
+-- Run once before deploying the switch from IDENTITY ids, with the service stopped.
+-- Hibernate hands out up to allocationSize (50) ids below the stored value, so the seed
+-- stays one full allocation above the highest id in use.
+
+create table if not exists id_generator (
+    sequence_name varchar(255) not null primary key,
+    next_val      bigint
+);
+
+insert into id_generator (sequence_name, next_val)
+select 'price', coalesce(max(id), 0) + 51 from price
+on duplicate key update next_val = greatest(next_val, values(next_val));
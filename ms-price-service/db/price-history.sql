@@ -0,0 +1,25 @@
+-- Creates price_history and backfills it from the price table (MySQL 8).
+-- Run once before deploying the as-of lookups on the history, with the service stopped.
+-- Edits and deletes made before this point are not known, so every existing price is recorded
+-- with the amount it has now, in effect from its createdAt.
+
+create table if not exists price_history (
+    id               bigint not null auto_increment primary key,
+    price_id         bigint,
+    product_id       bigint,
+    price_uuid       varchar(255),
+    price_created_at datetime(6),
+    discount         decimal(38, 2),
+    amount           decimal(38, 2),
+    iso              varchar(255),
+    symbol           varchar(255),
+    deleted          bit,
+    recorded_at      datetime(6),
+    index idx_price_history_product_recorded_at (product_id, recorded_at),
+    index idx_price_history_price_recorded_at (price_id, recorded_at, id)
+);
+
+insert into price_history (price_id, product_id, price_uuid, price_created_at, discount, amount, iso, symbol, deleted, recorded_at)
+select p.id, p.product_id, p.uuid, p.created_at, p.discount, p.amount, p.iso, p.symbol, false, p.created_at
+from price p
+where not exists (select 1 from price_history h where h.price_id = p.id);
@@ -0,0 +1,46 @@
+package pact.shopping.price.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+import pact.shopping.price.service.exceptions.GatewayTimeoutException;
+
+class DeadlineInterceptor implements HandlerInterceptor {
+
+    static final String HEADER = "X-Request-Deadline";
+    private static final String QUERY_TIMEOUT = "jakarta.persistence.query.timeout";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    DeadlineInterceptor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the header carries the milliseconds the caller is still willing to wait
+        var header = request.getHeader(HEADER);
+        if (header == null) {
+            return true;
+        }
+        long remaining;
+        try {
+            remaining = Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        if (remaining <= 0) {
+            throw new GatewayTimeoutException("Request deadline expired before processing started");
+        }
+        // runs after open-in-view has bound the request's entity manager, so every query of the request
+        // is cut off once the caller stops waiting; JDBC timeouts are whole seconds, so it is rounded up
+        if (TransactionSynchronizationManager.getResource(entityManagerFactory) instanceof EntityManagerHolder holder) {
+            var timeout = Math.min((remaining + 999) / 1000 * 1000, Integer.MAX_VALUE);
+            holder.getEntityManager().setProperty(QUERY_TIMEOUT, (int) timeout);
+        }
+        return true;
+    }
+}
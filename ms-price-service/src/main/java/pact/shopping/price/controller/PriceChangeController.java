@@ -0,0 +1,28 @@
+package pact.shopping.price.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pact.shopping.price.service.changes.PriceChangeFeed;
+
+@RestController
+@RequestMapping("/v1/products/prices/changes")
+@RequiredArgsConstructor
+public class PriceChangeController implements IController {
+
+    private final PriceChangeFeed feed;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestHeader(value = "Last-Event-ID", required = false)
+            Long lastEventId,
+            @RequestParam(value = "after", required = false)
+            Long after) {
+
+        // a reconnecting EventSource sends Last-Event-ID, other clients can pass the sequence explicitly
+        final var emitter = feed.subscribe(lastEventId != null ? lastEventId : after);
+        return ResponseEntity.ok(emitter);
+    }
+}
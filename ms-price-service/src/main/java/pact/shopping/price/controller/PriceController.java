@@ -1,14 +1,26 @@
 package pact.shopping.price.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import pact.shopping.price.dto.PriceAsOfRequest;
+import pact.shopping.price.dto.PriceAsOfResponse;
+import pact.shopping.price.dto.PriceSearchRequest;
 import pact.shopping.price.model.Price;
 import pact.shopping.price.service.PriceService;
+import pact.shopping.price.service.bulk.PriceUpserter;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/v1/products")
@@ -17,6 +29,7 @@ import java.util.List;
 public class PriceController implements IController {
 
     private final PriceService service;
+    private final PriceUpserter upserter;
 
     @PostMapping("/{productId}/prices")
     public ResponseEntity<Price> create(
@@ -29,6 +42,13 @@ public class PriceController implements IController {
         return ResponseEntity.created(getURI(price.getId())).body(price);
     }
 
+    // one NDJSON line per price in, one result per line out, written after every chunk
+    @PostMapping(value = "/prices/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void upsert(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        upserter.upsert(request.getInputStream(), response.getOutputStream());
+    }
+
     @PutMapping("/{productId}/prices/{id}")
     public ResponseEntity<Void> update(
             @PathVariable
@@ -47,9 +67,64 @@ public class PriceController implements IController {
     @GetMapping("/{productId}/prices")
     public ResponseEntity<List<Price>> findAll(
             @PathVariable
-            Long productId) {
+            Long productId,
+            WebRequest request) {
 
+        // the tag comes from the (productId, version) index, prices are only loaded when it changed
+        final var etag = service.findETagByProductId(productId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         final var price = service.findAllByProductId(productId);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(price);
+    }
+
+    @GetMapping("/{productId}/prices/current")
+    public ResponseEntity<Price> findCurrent(
+            @PathVariable
+            Long productId) {
+
+        final var price = service.findCurrentByProductId(productId);
+        return ResponseEntity.ok(price);
+    }
+
+    @GetMapping("/{productId}/prices/as-of")
+    public ResponseEntity<Price> findAsOf(
+            @PathVariable
+            Long productId,
+            @RequestParam("at")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+
+        final var price = service.findAsOf(productId, at);
         return ResponseEntity.ok(price);
     }
+
+    @PostMapping("/prices/as-of/search")
+    public ResponseEntity<List<PriceAsOfResponse>> searchAsOf(
+            @RequestBody
+            @Valid PriceAsOfRequest request) {
+
+        final var prices = service.findAsOf(request.getLookups());
+        return ResponseEntity.ok(prices);
+    }
+
+    @PostMapping("/prices/current/search")
+    public ResponseEntity<Map<Long, Price>> searchCurrent(
+            @RequestBody
+            @Valid PriceSearchRequest request) {
+
+        final var prices = service.findCurrentByProductIds(request.getProductIds());
+        return ResponseEntity.ok(prices);
+    }
+
+    @PostMapping("/prices/search")
+    public ResponseEntity<Map<Long, List<Price>>> search(
+            @RequestBody
+            @Valid PriceSearchRequest request) {
+
+        final var prices = service.findAllByProductIds(request.getProductIds());
+        return ResponseEntity.ok(prices);
+    }
 }
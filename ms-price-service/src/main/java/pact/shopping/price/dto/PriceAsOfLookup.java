@@ -0,0 +1,20 @@
+package pact.shopping.price.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceAsOfLookup {
+    @NotNull
+    private Long productId;
+    @NotNull
+    private LocalDateTime at;
+}
@@ -0,0 +1,21 @@
+package pact.shopping.price.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceAsOfRequest {
+    @NotNull
+    @Size(max = 1000)
+    private List<@Valid @NotNull PriceAsOfLookup> lookups;
+}
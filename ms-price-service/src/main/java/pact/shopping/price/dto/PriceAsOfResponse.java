@@ -0,0 +1,20 @@
+package pact.shopping.price.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pact.shopping.price.model.Price;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceAsOfResponse {
+    private Long productId;
+    private LocalDateTime at;
+    // null when the product had no price yet at that time
+    private Price price;
+}
@@ -0,0 +1,20 @@
+package pact.shopping.price.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceSearchRequest {
+    @NotNull
+    @Size(max = 100)
+    private List<Long> productIds;
+}
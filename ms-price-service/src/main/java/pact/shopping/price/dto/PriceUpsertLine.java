@@ -0,0 +1,22 @@
+package pact.shopping.price.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pact.shopping.price.model.PriceCurrency;
+
+import java.math.BigDecimal;
+
+// a line without id creates a price, a line with id updates it
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceUpsertLine {
+    private Long id;
+    private Long productId;
+    private BigDecimal amount;
+    private BigDecimal discount;
+    private PriceCurrency currency;
+}
@@ -0,0 +1,13 @@
+package pact.shopping.price.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PriceUpsertResult {
+    private Long line;
+    private PriceUpsertStatusEnum status;
+    private Long id;
+    private String error;
+}
@@ -0,0 +1,5 @@
+package pact.shopping.price.dto;
+
+public enum PriceUpsertStatusEnum {
+    CREATED, UPDATED, FAILED
+}
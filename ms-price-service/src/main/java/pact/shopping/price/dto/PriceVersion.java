@@ -0,0 +1,9 @@
+package pact.shopping.price.dto;
+
+public record PriceVersion(Long count, Long maxId, Long versionSum) {
+
+    // inserts move maxId, deletes lower count and updates raise versionSum, so any change alters the tag
+    public String toETag() {
+        return count + "-" + maxId + "-" + versionSum;
+    }
+}
@@ -12,15 +12,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
+@Table(indexes = {
+        @Index(name = "idx_price_product_id", columnList = "productId, version"),
+        @Index(name = "idx_price_product_created_at", columnList = "productId, createdAt, id")})
 public class Price {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "price_id")
+    @TableGenerator(name = "price_id", table = "id_generator", pkColumnValue = "price", allocationSize = 50)
     private Long id;
     private String uuid;
     private LocalDateTime createdAt;
     private Long productId;
     private BigDecimal discount;
     private BigDecimal amount;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 
     @Embedded
     @AttributeOverrides({ @AttributeOverride(name = "iso", column = @Column(name = "iso")),
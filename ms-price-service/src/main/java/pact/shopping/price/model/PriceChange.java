@@ -0,0 +1,27 @@
+package pact.shopping.price.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// The id is the sequence number of the change feed
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "price_change", indexes = @Index(name = "idx_price_change_created_at", columnList = "createdAt"))
+public class PriceChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long productId;
+    private Long priceId;
+    @Enumerated(EnumType.STRING)
+    private PriceChangeTypeEnum type;
+    private LocalDateTime createdAt;
+}
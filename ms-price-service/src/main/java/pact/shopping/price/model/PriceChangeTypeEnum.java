@@ -0,0 +1,5 @@
+package pact.shopping.price.model;
+
+public enum PriceChangeTypeEnum {
+    CREATED, UPDATED, DELETED
+}
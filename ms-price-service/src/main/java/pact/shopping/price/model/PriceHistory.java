@@ -0,0 +1,64 @@
+package pact.shopping.price.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Append-only: every write of a price adds the state it left behind, recordedAt is when that state took effect.
+// Prices are edited and deleted in place, so point-in-time lookups read from here.
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "price_history", indexes = {
+        @Index(name = "idx_price_history_product_recorded_at", columnList = "productId, recordedAt"),
+        @Index(name = "idx_price_history_price_recorded_at", columnList = "priceId, recordedAt, id")})
+public class PriceHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long priceId;
+    private Long productId;
+    private String priceUuid;
+    private LocalDateTime priceCreatedAt;
+    private BigDecimal discount;
+    private BigDecimal amount;
+    @Embedded
+    @AttributeOverrides({ @AttributeOverride(name = "iso", column = @Column(name = "iso")),
+            @AttributeOverride(name = "symbol", column = @Column(name = "symbol")), })
+    private PriceCurrency currency;
+    private Boolean deleted;
+    private LocalDateTime recordedAt;
+
+    public static PriceHistory of(Price price, boolean deleted, LocalDateTime recordedAt) {
+        return PriceHistory.builder()
+                .priceId(price.getId())
+                .productId(price.getProductId())
+                .priceUuid(price.getUuid())
+                .priceCreatedAt(price.getCreatedAt())
+                .discount(price.getDiscount())
+                .amount(price.getAmount())
+                .currency(price.getCurrency())
+                .deleted(deleted)
+                .recordedAt(recordedAt)
+                .build();
+    }
+
+    public Price toPrice() {
+        return Price.builder()
+                .id(priceId)
+                .uuid(priceUuid)
+                .createdAt(priceCreatedAt)
+                .productId(productId)
+                .discount(discount)
+                .amount(amount)
+                .currency(currency)
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package pact.shopping.price.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pact.shopping.price.model.PriceChange;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceChangeRepository extends JpaRepository<PriceChange, Long> {
+
+    // changes younger than settledBefore are left for the next poll, so most transactions that
+    // took a lower id but commit late are still read in order; the feed tracks the rest as gaps
+    @Query("select c from PriceChange c where c.id > :after and c.createdAt < :settledBefore order by c.id")
+    List<PriceChange> findSettled(@Param("after") Long after,
+                                  @Param("settledBefore") LocalDateTime settledBefore,
+                                  Pageable pageable);
+
+    @Query("select coalesce(min(c.id), 0) from PriceChange c")
+    long findFirstSequence();
+
+    @Query("select coalesce(max(c.id), 0) from PriceChange c")
+    long findLastSequence();
+
+    @Transactional
+    @Modifying
+    @Query("delete from PriceChange c where c.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
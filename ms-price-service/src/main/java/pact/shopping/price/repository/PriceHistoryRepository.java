@@ -0,0 +1,31 @@
+package pact.shopping.price.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pact.shopping.price.model.PriceHistory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
+
+    // the state of every price of the product as of the requested time, the newest price that still existed wins;
+    // the outer rows come from idx_price_history_product_recorded_at, the anti-join from idx_price_history_price_recorded_at
+    @Query("""
+            select h from PriceHistory h
+            where h.productId = :productId and h.recordedAt <= :at
+            and not exists (
+                select 1 from PriceHistory later
+                where later.priceId = h.priceId and later.recordedAt <= :at
+                and (later.recordedAt > h.recordedAt or (later.recordedAt = h.recordedAt and later.id > h.id)))
+            and h.deleted = false
+            order by h.priceCreatedAt desc, h.priceId desc
+            """)
+    List<PriceHistory> findInEffect(@Param("productId") Long productId,
+                                    @Param("at") LocalDateTime at,
+                                    Pageable pageable);
+}
@@ -1,13 +1,42 @@
 package pact.shopping.price.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pact.shopping.price.dto.PriceVersion;
 import pact.shopping.price.model.Price;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PriceRepository extends JpaRepository<Price, Long> {
-    List<Price> findAllByProductId(Long productId);
+    // newest first, so the head of the history is the price in effect
+    @Query("select p from Price p where p.productId = :productId order by p.createdAt desc, p.id desc")
+    List<Price> findAllByProductId(@Param("productId") Long productId);
+
+    @Query("select p from Price p where p.productId in :productIds order by p.productId, p.createdAt desc, p.id desc")
+    List<Price> findAllByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    Optional<Price> findFirstByProductIdOrderByCreatedAtDescIdDesc(Long productId);
+
+    // the latest price per product, both sides of the anti-join are answered from idx_price_product_created_at
+    @Query("""
+            select p from Price p
+            where p.productId in :productIds
+            and not exists (
+                select 1 from Price newer
+                where newer.productId = p.productId
+                and (newer.createdAt > p.createdAt or (newer.createdAt = p.createdAt and newer.id > p.id)))
+            """)
+    List<Price> findCurrentByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("""
+            select new pact.shopping.price.dto.PriceVersion(count(p), coalesce(max(p.id), 0L), coalesce(sum(p.version), 0L))
+            from Price p
+            where p.productId = :productId
+            """)
+    PriceVersion findVersionByProductId(@Param("productId") Long productId);
 }
@@ -1,32 +1,61 @@
 package pact.shopping.price.service;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pact.shopping.price.dto.PriceAsOfLookup;
+import pact.shopping.price.dto.PriceAsOfResponse;
 import pact.shopping.price.model.Price;
+import pact.shopping.price.model.PriceChange;
+import pact.shopping.price.model.PriceChangeTypeEnum;
+import pact.shopping.price.model.PriceHistory;
+import pact.shopping.price.repository.PriceChangeRepository;
+import pact.shopping.price.repository.PriceHistoryRepository;
 import pact.shopping.price.repository.PriceRepository;
 import pact.shopping.price.service.exceptions.NotFoundException;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toMap;
 
 @Service
 public class PriceService {
     private final PriceRepository repository;
+    private final PriceChangeRepository changeRepository;
+    private final PriceHistoryRepository historyRepository;
 
-    public PriceService(PriceRepository repository) {
+    public PriceService(PriceRepository repository,
+                        PriceChangeRepository changeRepository,
+                        PriceHistoryRepository historyRepository) {
         this.repository = repository;
+        this.changeRepository = changeRepository;
+        this.historyRepository = historyRepository;
     }
 
+    @Transactional
     public Price insert(Price price) {
         price.setUuid(UUID.randomUUID().toString());
         price.setCreatedAt(LocalDateTime.now());
-        return repository.save(price);
+        var saved = repository.save(price);
+        recordChange(saved, PriceChangeTypeEnum.CREATED);
+        return saved;
     }
 
+    @Transactional
     public void update(Price price) {
         var priceFound = findById(price.getId());
         priceFound.setAmount(price.getAmount());
         repository.save(priceFound);
+        recordChange(priceFound, PriceChangeTypeEnum.UPDATED);
     }
 
     public Price findById(Long id) {
@@ -37,8 +66,73 @@ public class PriceService {
         return repository.findAllByProductId(productId);
     }
 
+    public Price findCurrentByProductId(Long productId) {
+        return repository.findFirstByProductIdOrderByCreatedAtDescIdDesc(productId).orElseThrow(NotFoundException::new);
+    }
+
+    public Map<Long, Price> findCurrentByProductIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return repository.findCurrentByProductIdIn(productIds).stream()
+                .collect(toMap(Price::getProductId, Function.identity()));
+    }
+
+    public Price findAsOf(Long productId, LocalDateTime at) {
+        return findInEffect(productId, at).orElseThrow(NotFoundException::new);
+    }
+
+    // every distinct (productId, at) pair is one lookup, all of them in a single read-only transaction
+    @Transactional(readOnly = true)
+    public List<PriceAsOfResponse> findAsOf(List<PriceAsOfLookup> lookups) {
+        var found = new HashMap<PriceAsOfLookup, Optional<Price>>();
+        return lookups.stream()
+                .map(lookup -> PriceAsOfResponse.builder()
+                        .productId(lookup.getProductId())
+                        .at(lookup.getAt())
+                        .price(found.computeIfAbsent(lookup, key -> findInEffect(key.getProductId(), key.getAt()))
+                                .orElse(null))
+                        .build())
+                .toList();
+    }
+
+    // read from the history, the price rows only hold their latest amount
+    private Optional<Price> findInEffect(Long productId, LocalDateTime at) {
+        return historyRepository.findInEffect(productId, at, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(PriceHistory::toPrice);
+    }
+
+    public String findETagByProductId(Long productId) {
+        return repository.findVersionByProductId(productId).toETag();
+    }
+
+    public Map<Long, List<Price>> findAllByProductIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return repository.findAllByProductIdIn(productIds).stream()
+                .collect(groupingBy(Price::getProductId));
+    }
+
+    @Transactional
     public void delete(Long id) {
         Price price = findById(id);
         repository.delete(price);
+        recordChange(price, PriceChangeTypeEnum.DELETED);
+    }
+
+    // written in the same transaction as the price, the change feed and the as-of lookups pick it up from there
+    private void recordChange(Price price, PriceChangeTypeEnum type) {
+        var now = LocalDateTime.now();
+        changeRepository.save(PriceChange.builder()
+                .productId(price.getProductId())
+                .priceId(price.getId())
+                .type(type)
+                .createdAt(now)
+                .build());
+        // a new price takes effect when it was created, so lookups at its createdAt already find it
+        var recordedAt = type == PriceChangeTypeEnum.CREATED ? price.getCreatedAt() : now;
+        historyRepository.save(PriceHistory.of(price, type == PriceChangeTypeEnum.DELETED, recordedAt));
     }
 }
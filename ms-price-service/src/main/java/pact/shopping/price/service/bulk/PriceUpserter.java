@@ -0,0 +1,244 @@
+package pact.shopping.price.service.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pact.shopping.price.dto.PriceUpsertLine;
+import pact.shopping.price.dto.PriceUpsertResult;
+import pact.shopping.price.dto.PriceUpsertStatusEnum;
+import pact.shopping.price.model.Price;
+import pact.shopping.price.model.PriceChangeTypeEnum;
+import pact.shopping.price.repository.PriceRepository;
+import pact.shopping.price.service.exceptions.TooManyRequestsException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+@Component
+public class PriceUpserter {
+
+    private static final String INSERT_CHANGE =
+            "insert into price_change (product_id, price_id, type, created_at) values (?, ?, ?, ?)";
+    private static final String INSERT_HISTORY = """
+            insert into price_history (price_id, product_id, price_uuid, price_created_at, discount, amount, iso, symbol, deleted, recorded_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, false, ?)""";
+
+    private final ObjectMapper objectMapper;
+    private final PriceRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+    // every run holds a request thread for its whole duration, so only a few may run at once
+    private final Semaphore runs;
+
+    public PriceUpserter(ObjectMapper objectMapper,
+                         PriceRepository repository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         EntityManager entityManager,
+                         @Value("${price.bulk.chunk-size:500}") int chunkSize,
+                         @Value("${price.bulk.max-concurrent-runs:2}") int maxConcurrentRuns) {
+        this.objectMapper = objectMapper;
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+        this.runs = new Semaphore(maxConcurrentRuns);
+    }
+
+    public void upsert(InputStream in, OutputStream out) throws IOException {
+        if (!runs.tryAcquire()) {
+            throw new TooManyRequestsException("Too many bulk price upserts are already running");
+        }
+        try {
+            var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            var chunk = new ArrayList<Entry>(chunkSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(parse(lineNumber, line));
+                if (chunk.size() == chunkSize) {
+                    write(process(chunk), out);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write(process(chunk), out);
+            }
+        } finally {
+            runs.release();
+        }
+    }
+
+    private Entry parse(long lineNumber, String line) {
+        var entry = new Entry(lineNumber);
+        try {
+            entry.line = objectMapper.readValue(line, PriceUpsertLine.class);
+            if (entry.line.getProductId() == null || entry.line.getAmount() == null) {
+                entry.fail("productId and amount are required");
+            } else if (entry.line.getId() == null && entry.line.getCurrency() == null) {
+                entry.fail("currency is required for new prices");
+            }
+        } catch (JsonProcessingException e) {
+            entry.fail("Malformed line: " + e.getOriginalMessage());
+        }
+        return entry;
+    }
+
+    private List<Entry> process(List<Entry> chunk) {
+        var valid = chunk.stream().filter(entry -> entry.result == null).toList();
+        if (valid.isEmpty()) {
+            return chunk;
+        }
+        try {
+            store(valid);
+        } catch (RuntimeException e) {
+            // one bad row rolls back the whole chunk, storing the rows one by one leaves only that row failed
+            valid.stream().filter(entry -> entry.result == null).forEach(entry -> {
+                try {
+                    store(List.of(entry));
+                } catch (RuntimeException rowFailure) {
+                    entry.fail(rowFailure.getMessage());
+                }
+            });
+        }
+        return chunk;
+    }
+
+    private void store(List<Entry> entries) {
+        entries.forEach(entry -> {
+            entry.price = null;
+            entry.type = null;
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            apply(entries);
+            var changed = entries.stream().filter(entry -> entry.price != null).toList();
+            repository.saveAll(changed.stream().map(entry -> entry.price).toList());
+            entityManager.flush();
+            recordChanges(changed);
+            // keep the persistence context from growing with the size of the run
+            entityManager.clear();
+        });
+        entries.stream()
+                .filter(entry -> entry.price != null)
+                .forEach(entry -> entry.result = PriceUpsertResult.builder()
+                        .line(entry.lineNumber)
+                        .status(entry.type == PriceChangeTypeEnum.CREATED ? PriceUpsertStatusEnum.CREATED : PriceUpsertStatusEnum.UPDATED)
+                        .id(entry.price.getId())
+                        .build());
+    }
+
+    // the prices to update are loaded with one query per chunk, new ones get their ids from the pooled generator
+    private void apply(List<Entry> entries) {
+        var ids = entries.stream()
+                .map(entry -> entry.line.getId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        var existing = ids.isEmpty()
+                ? Map.<Long, Price>of()
+                : repository.findAllById(ids).stream().collect(toMap(Price::getId, Function.identity()));
+
+        var now = LocalDateTime.now();
+        entries.forEach(entry -> {
+            var line = entry.line;
+            if (line.getId() == null) {
+                entry.type = PriceChangeTypeEnum.CREATED;
+                entry.price = Price.builder()
+                        .uuid(UUID.randomUUID().toString())
+                        .createdAt(now)
+                        .productId(line.getProductId())
+                        .amount(line.getAmount())
+                        .discount(line.getDiscount())
+                        .currency(line.getCurrency())
+                        .build();
+                return;
+            }
+            var price = existing.get(line.getId());
+            if (price == null) {
+                entry.fail("Price id '%s' not found".formatted(line.getId()));
+            } else if (!price.getProductId().equals(line.getProductId())) {
+                entry.fail("Price id '%s' does not belong to product '%s'".formatted(line.getId(), line.getProductId()));
+            } else {
+                entry.type = PriceChangeTypeEnum.UPDATED;
+                price.setAmount(line.getAmount());
+                if (line.getDiscount() != null) {
+                    price.setDiscount(line.getDiscount());
+                }
+                entry.price = price;
+            }
+        });
+    }
+
+    // price_change ids are the feed sequence and stay IDENTITY like the price_history ids,
+    // so both are batched over plain JDBC
+    private void recordChanges(List<Entry> changed) {
+        var now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, changed, chunkSize, (statement, entry) -> {
+            statement.setLong(1, entry.price.getProductId());
+            statement.setLong(2, entry.price.getId());
+            statement.setString(3, entry.type.name());
+            statement.setTimestamp(4, Timestamp.valueOf(now));
+        });
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, changed, chunkSize, (statement, entry) -> {
+            var price = entry.price;
+            var currency = price.getCurrency();
+            statement.setLong(1, price.getId());
+            statement.setLong(2, price.getProductId());
+            statement.setString(3, price.getUuid());
+            statement.setTimestamp(4, Timestamp.valueOf(price.getCreatedAt()));
+            statement.setBigDecimal(5, price.getDiscount());
+            statement.setBigDecimal(6, price.getAmount());
+            statement.setString(7, currency == null || currency.getIso() == null ? null : currency.getIso().name());
+            statement.setString(8, currency == null ? null : currency.getSymbol());
+            // a new price takes effect when it was created, as in PriceService
+            statement.setTimestamp(9, Timestamp.valueOf(entry.type == PriceChangeTypeEnum.CREATED ? price.getCreatedAt() : now));
+        });
+    }
+
+    private void write(List<Entry> chunk, OutputStream out) throws IOException {
+        for (Entry entry : chunk) {
+            out.write(objectMapper.writeValueAsBytes(entry.result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static class Entry {
+        private final long lineNumber;
+        private PriceUpsertLine line;
+        private Price price;
+        private PriceChangeTypeEnum type;
+        private PriceUpsertResult result;
+
+        private Entry(long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        private void fail(String error) {
+            price = null;
+            result = PriceUpsertResult.builder()
+                    .line(lineNumber)
+                    .status(PriceUpsertStatusEnum.FAILED)
+                    .error(error)
+                    .build();
+        }
+    }
+}
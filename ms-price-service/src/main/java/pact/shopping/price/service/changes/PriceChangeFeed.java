@@ -0,0 +1,249 @@
+package pact.shopping.price.service.changes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pact.shopping.price.dto.PriceChangeEvent;
+import pact.shopping.price.model.PriceChange;
+import pact.shopping.price.repository.PriceChangeRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Streams price changes to subscribers as Server-Sent Events. Every event carries the sequence
+// of the last change it covers as its id, so a subscriber resumes with Last-Event-ID after a reconnect.
+// Ids are taken at insert but become visible at commit, so a transaction running longer than the
+// settle delay shows up below the head. The ids skipped by the head are watched as gaps until gap-timeout,
+// which has to be longer than the longest transaction writing prices, bulk upsert chunks included.
+// Filled gaps only reach the subscribers connected at that moment, so subscribers drop their caches on every READY.
+@Slf4j
+@Component
+public class PriceChangeFeed {
+
+    static final String CHANGES = "changes";
+    static final String READY = "ready";
+    static final String RESET = "reset";
+
+    private final PriceChangeRepository repository;
+    private final int batchSize;
+    private final Duration settle;
+    private final Duration streamTimeout;
+    private final Duration retention;
+    private final Duration gapTimeout;
+    private final int maxGaps;
+    // ids the head moved past without reading them, with the time they were noticed
+    private final Map<Long, LocalDateTime> gaps = new ConcurrentHashMap<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Counter sent;
+    // sequence of the last change broadcast to in-sync subscribers, -1 while nobody listens
+    private volatile long head = -1;
+
+    public PriceChangeFeed(PriceChangeRepository repository,
+                           MeterRegistry registry,
+                           @Value("${price.changes.batch-size:500}") int batchSize,
+                           @Value("${price.changes.settle:1s}") Duration settle,
+                           @Value("${price.changes.stream-timeout:30m}") Duration streamTimeout,
+                           @Value("${price.changes.retention:7d}") Duration retention,
+                           @Value("${price.changes.gap-timeout:10m}") Duration gapTimeout,
+                           @Value("${price.changes.max-gaps:1000}") int maxGaps) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.settle = settle;
+        this.streamTimeout = streamTimeout;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+        this.maxGaps = maxGaps;
+        this.sent = Counter.builder("price.changes.sent").register(registry);
+        Gauge.builder("price.changes.subscribers", subscribers, List::size).register(registry);
+        Gauge.builder("price.changes.gaps", gaps, Map::size).register(registry);
+    }
+
+    public SseEmitter subscribe(Long after) {
+        var emitter = new SseEmitter(streamTimeout.toMillis());
+        var last = repository.findLastSequence();
+        var subscriber = new Subscriber(emitter, after == null ? last : after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        if (after != null && !canResume(after, last)) {
+            // the changes after that sequence were already cleaned up, the subscriber has to drop everything
+            subscriber.cursor = last;
+            send(subscriber, RESET, last, Collections.emptyList());
+        } else {
+            send(subscriber, READY, subscriber.cursor, Collections.emptyList());
+        }
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    private boolean canResume(long after, long last) {
+        if (after > last) {
+            return false;
+        }
+        var first = repository.findFirstSequence();
+        return first == 0 || after >= first - 1;
+    }
+
+    @Scheduled(fixedDelayString = "${price.changes.interval:PT0.5S}")
+    public void poll() {
+        if (subscribers.isEmpty()) {
+            head = -1;
+            gaps.clear();
+            return;
+        }
+        try {
+            if (head < 0) {
+                head = subscribers.stream().mapToLong(subscriber -> subscriber.cursor).min().orElse(0);
+            }
+            List<PriceChange> changes;
+            do {
+                changes = findSettled(head);
+                if (!changes.isEmpty()) {
+                    broadcast(changes);
+                }
+            } while (changes.size() == batchSize);
+            fillGaps();
+            // subscribers that resumed from an older sequence catch up on their own
+            subscribers.stream()
+                    .filter(subscriber -> subscriber.cursor < head)
+                    .forEach(this::catchUp);
+        } catch (RuntimeException e) {
+            // nothing was acknowledged, the next run reads the same changes again
+            log.warn("Could not poll price changes: {}", e.getMessage());
+        }
+    }
+
+    private void broadcast(List<PriceChange> changes) {
+        var previous = head;
+        var last = changes.get(changes.size() - 1).getId();
+        trackGaps(previous, changes);
+        subscribers.stream()
+                .filter(subscriber -> subscriber.cursor >= previous)
+                .forEach(subscriber -> send(subscriber, changes.stream()
+                        .filter(change -> change.getId() > subscriber.cursor)
+                        .toList()));
+        head = last;
+    }
+
+    private void trackGaps(long previous, List<PriceChange> changes) {
+        var now = LocalDateTime.now();
+        var expected = previous + 1;
+        for (PriceChange change : changes) {
+            // late commits sit just below the head, older holes are ids that were cleaned up or rolled back
+            for (long id = Math.max(expected, change.getId() - maxGaps); id < change.getId(); id++) {
+                gaps.put(id, now);
+            }
+            expected = change.getId() + 1;
+        }
+    }
+
+    // late commits are sent to every subscriber without moving its cursor, rolled back ids expire
+    private void fillGaps() {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        if (gaps.size() > maxGaps) {
+            // too many holes to watch, subscribers have to drop everything instead
+            log.warn("{} unfilled gaps in the price change sequence, resetting subscribers", gaps.size());
+            gaps.clear();
+            subscribers.forEach(subscriber -> send(subscriber, RESET, subscriber.cursor, Collections.emptyList()));
+            return;
+        }
+        var filled = repository.findAllById(gaps.keySet());
+        if (!filled.isEmpty()) {
+            filled.forEach(change -> gaps.remove(change.getId()));
+            var productIds = filled.stream().map(PriceChange::getProductId).distinct().toList();
+            subscribers.forEach(subscriber -> send(subscriber, CHANGES, subscriber.cursor, productIds));
+            sent.increment(filled.size());
+        }
+        var expired = LocalDateTime.now().minus(gapTimeout);
+        gaps.values().removeIf(noticed -> noticed.isBefore(expired));
+    }
+
+    private void catchUp(Subscriber subscriber) {
+        List<PriceChange> changes;
+        do {
+            changes = findSettled(subscriber.cursor);
+            if (!changes.isEmpty()) {
+                send(subscriber, changes);
+            }
+        } while (changes.size() == batchSize && subscriber.cursor < head);
+    }
+
+    private List<PriceChange> findSettled(long after) {
+        return repository.findSettled(after, LocalDateTime.now().minus(settle), PageRequest.of(0, batchSize));
+    }
+
+    private void send(Subscriber subscriber, List<PriceChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        var sequence = changes.get(changes.size() - 1).getId();
+        var productIds = changes.stream().map(PriceChange::getProductId).distinct().toList();
+        send(subscriber, CHANGES, sequence, productIds);
+        sent.increment(changes.size());
+    }
+
+    private void send(Subscriber subscriber, String name, long sequence, List<Long> productIds) {
+        synchronized (subscriber) {
+            try {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(sequence))
+                        .name(name)
+                        .data(new PriceChangeEvent(sequence, productIds), MediaType.APPLICATION_JSON));
+                subscriber.cursor = sequence;
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    // keeps idle connections open through proxies and lets subscribers notice a dead stream
+    @Scheduled(fixedDelayString = "${price.changes.heartbeat:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> {
+            synchronized (subscriber) {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${price.changes.cleanup-interval:PT1H}")
+    public void cleanup() {
+        try {
+            repository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.warn("Could not clean up price changes: {}", e.getMessage());
+        }
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private volatile long cursor;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
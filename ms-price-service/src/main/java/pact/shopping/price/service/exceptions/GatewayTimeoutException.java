@@ -0,0 +1,12 @@
+package pact.shopping.price.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.GATEWAY_TIMEOUT, reason = "gateway timeout")
+public class GatewayTimeoutException extends RuntimeException {
+    public GatewayTimeoutException(String message) {
+        super(message);
+    }
+
+}
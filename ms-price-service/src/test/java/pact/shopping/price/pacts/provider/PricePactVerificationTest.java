@@ -12,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.test.context.ActiveProfiles;
+import pact.shopping.price.dto.PriceVersion;
 import pact.shopping.price.model.CurrencyEnum;
 import pact.shopping.price.model.Price;
 import pact.shopping.price.model.PriceCurrency;
@@ -71,15 +72,48 @@ public class PricePactVerificationTest {
                         .iso(CurrencyEnum.USD)
                         .symbol("$")
                         .build())
+                .version(0L)
                 .build();
 
+        when(priceRepository.findVersionByProductId(eq(10L))).thenReturn(new PriceVersion(1L, 1L, 0L));
         when(priceRepository.findAllByProductId(eq(10L))).thenReturn(Collections.singletonList(price));
         when(priceRepository.save(any(Price.class))).thenReturn(price);
     }
 
+    @State(value = "current prices by product ID 10 and 11 exist", action = StateChangeAction.SETUP)
+    void currentPricesByProductsExist() {
+        Price tv = Price.builder()
+                .id(3L)
+                .uuid("5d2b8e0a-9f43-4c7e-8d61-2a7f3e9b1c42")
+                .productId(10L)
+                .createdAt(LocalDateTime.parse("2024-03-10T08:15:00"))
+                .amount(BigDecimal.valueOf(139.99))
+                .discount(BigDecimal.valueOf(0.0))
+                .currency(PriceCurrency.builder()
+                        .iso(CurrencyEnum.USD)
+                        .symbol("$")
+                        .build())
+                .build();
+        Price laptop = Price.builder()
+                .id(2L)
+                .uuid("0f4b1c4e-3c1b-4c55-9d1a-6c1b2f5f8a11")
+                .productId(11L)
+                .createdAt(LocalDateTime.parse("2024-03-09T19:44:17"))
+                .amount(BigDecimal.valueOf(1999.0))
+                .discount(BigDecimal.valueOf(0.0))
+                .currency(PriceCurrency.builder()
+                        .iso(CurrencyEnum.USD)
+                        .symbol("$")
+                        .build())
+                .build();
+
+        when(priceRepository.findCurrentByProductIdIn(eq(Arrays.asList(10L, 11L)))).thenReturn(Arrays.asList(tv, laptop));
+    }
+
     @State(value = "prices by product ID 10 does not exist", action = StateChangeAction.SETUP)
     void pricesNotExist(Map<String, Object> params) {
         long productId = ((Number) params.get("id")).longValue();
+        when(priceRepository.findVersionByProductId(eq(productId))).thenReturn(new PriceVersion(0L, 0L, 0L));
         when(priceRepository.findAllByProductId(eq(productId))).thenReturn(Collections.emptyList());
     }
 }
@@ -3,9 +3,10 @@ package pact.shopping.product;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import pact.shopping.product.config.FeignTransportConfiguration;
 
 @SpringBootApplication
-@EnableFeignClients
+@EnableFeignClients(defaultConfiguration = FeignTransportConfiguration.class)
 public class ProductApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,40 @@
+package pact.shopping.product.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pact.shopping.product.dto.PriceResponse;
+import pact.shopping.product.service.cache.ETagged;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public Cache<Long, ETagged<List<PriceResponse>>> priceHistoryCache(
+            @Value("${product.cache.prices.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.prices.expire-after-write:10m}") Duration expireAfterWrite) {
+        // trusted as is while the price change feed is live, otherwise revalidated with If-None-Match;
+        // expiring after write bounds how long a missed change can be served
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    @Bean
+    public Cache<Long, PriceResponse> currentPriceCache(
+            @Value("${product.cache.current-prices.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.current-prices.expire-after-write:10m}") Duration expireAfterWrite) {
+        // served directly while the price change feed is live, which evicts changed products;
+        // otherwise only read while price-service is unavailable
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package pact.shopping.product.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class FeignTransportProperties {
+    private boolean http2 = false;
+    private boolean gzip = false;
+    private Pool pool = new Pool();
+
+    @Data
+    public static class Pool {
+        // every client talks to a single host, so the route limit is effectively the pool size
+        private int maxTotal = 50;
+        private int maxPerRoute = 50;
+        private Duration leaseTimeout = Duration.ofSeconds(1);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private Duration evictIdleAfter = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,16 @@
+package pact.shopping.product.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // only deadlines sent by the caller are honoured, product-service does not start its own
+        registry.addInterceptor(new DeadlineInterceptor(null))
+                .addPathPatterns("/v1/products/**");
+    }
+}
@@ -1,14 +1,24 @@
 package pact.shopping.product.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import pact.shopping.product.dto.ProductPageResponse;
 import pact.shopping.product.dto.ProductResponse;
+import pact.shopping.product.dto.StockReservationRequest;
+import pact.shopping.product.dto.StockReservationResponse;
 import pact.shopping.product.model.Product;
+import pact.shopping.product.model.enums.ProductCategoryEnum;
 import pact.shopping.product.service.ProductService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -17,6 +27,7 @@ import java.util.List;
 public class ProductController implements IController {
 
     private final ProductService service;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Product> create(
@@ -41,10 +52,18 @@ public class ProductController implements IController {
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> findById(
             @PathVariable
-            Long id) {
+            Long id,
+            WebRequest request) {
 
+        // the product version and a conditional price lookup are enough to answer 304
+        final var etag = service.findETagById(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         final var product = service.findByIdWithPrices(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(product);
     }
 
     @DeleteMapping("/{id}")
@@ -55,9 +74,55 @@ public class ProductController implements IController {
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductResponse>> findAllByIds(
+            @RequestParam
+            List<Long> ids) {
+
+        final var products = service.findAllByIdsWithPrices(ids);
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping
-    public ResponseEntity<List<Product>> listAll() {
-        List<Product> products = service.findAll();
+    public ResponseEntity<ProductPageResponse> listAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) ProductCategoryEnum category) {
+
+        final var products = service.findAll(cursor, limit, active, category);
         return ResponseEntity.ok(products);
     }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAll(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) ProductCategoryEnum category,
+            HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (var writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(response.getOutputStream())) {
+            service.streamAll(active, category, product -> {
+                try {
+                    writer.write(product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @PostMapping("/stock/reservations")
+    public ResponseEntity<StockReservationResponse> reserve(
+            @RequestBody
+            @Valid StockReservationRequest request) {
+        return ResponseEntity.ok(service.reserve(request));
+    }
+
+    @PostMapping("/stock/releases")
+    public ResponseEntity<StockReservationResponse> release(
+            @RequestBody
+            @Valid StockReservationRequest request) {
+        return ResponseEntity.ok(service.release(request));
+    }
 }
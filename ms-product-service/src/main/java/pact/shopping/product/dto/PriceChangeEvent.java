@@ -0,0 +1,6 @@
+package pact.shopping.product.dto;
+
+import java.util.List;
+
+public record PriceChangeEvent(Long sequence, List<Long> productIds) {
+}
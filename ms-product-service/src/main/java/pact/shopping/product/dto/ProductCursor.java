@@ -0,0 +1,21 @@
+package pact.shopping.product.dto;
+
+import pact.shopping.product.service.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record ProductCursor(Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            return new ProductCursor(Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor '%s'".formatted(cursor));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package pact.shopping.product.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import pact.shopping.product.model.Product;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProductPageResponse {
+    private List<Product> products;
+    private String next;
+}
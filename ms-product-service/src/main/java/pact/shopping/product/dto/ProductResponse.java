@@ -17,4 +17,5 @@ public class ProductResponse {
     private String category;
     private Integer quantity;
     private List<PriceResponse> prices;
+    private PriceResponse currentPrice;
 }
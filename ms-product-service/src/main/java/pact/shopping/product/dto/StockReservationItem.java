@@ -0,0 +1,21 @@
+package pact.shopping.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class StockReservationItem {
+    @NotNull
+    private Long productId;
+    @NotNull
+    @Positive
+    private Integer quantity;
+    private StockReservationStatusEnum status;
+}
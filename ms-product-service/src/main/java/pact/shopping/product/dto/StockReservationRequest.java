@@ -0,0 +1,23 @@
+package pact.shopping.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservationRequest {
+    // the order the stock is reserved for, a repeated request for it returns the first result
+    @NotBlank
+    private String orderUuid;
+    @NotEmpty
+    private List<@Valid StockReservationItem> items;
+}
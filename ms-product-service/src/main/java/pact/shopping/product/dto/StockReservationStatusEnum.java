@@ -0,0 +1,5 @@
+package pact.shopping.product.dto;
+
+public enum StockReservationStatusEnum {
+    RESERVED, INSUFFICIENT_STOCK, RELEASED
+}
@@ -5,11 +5,13 @@ import pact.shopping.product.dto.PriceResponse;
 import pact.shopping.product.dto.ProductResponse;
 import pact.shopping.product.model.Product;
 
+import java.util.Collections;
 import java.util.List;
 
 @Component
 public class ProductMapping {
 
+    // price-service returns the history newest first, so its head is the price in effect
     public ProductResponse to(Product product, List<PriceResponse> prices) {
         return ProductResponse.builder()
                 .id(product.getId())
@@ -17,6 +19,11 @@ public class ProductMapping {
                 .category(product.getCategory().name())
                 .quantity(product.getQuantity())
                 .prices(prices)
+                .currentPrice(prices.isEmpty() ? null : prices.get(0))
                 .build();
     }
+
+    public ProductResponse to(Product product, PriceResponse currentPrice) {
+        return to(product, currentPrice == null ? Collections.emptyList() : List.of(currentPrice));
+    }
 }
@@ -25,4 +25,7 @@ public class Product implements Serializable {
     private LocalDateTime createdAt;
     private Integer quantity;
     private Boolean active;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,29 @@
+package pact.shopping.product.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import pact.shopping.product.model.enums.StockReservationStateEnum;
+
+import java.time.LocalDateTime;
+
+// one row per product of an order's reservation, the order uuid makes reserving and releasing repeatable
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_stock_reservation_order_product", columnList = "orderUuid, productId", unique = true)
+})
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String orderUuid;
+    private Long productId;
+    private Integer quantity;
+    @Enumerated(EnumType.STRING)
+    private StockReservationStateEnum state;
+    private LocalDateTime createdAt;
+}
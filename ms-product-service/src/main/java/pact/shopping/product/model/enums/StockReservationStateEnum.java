@@ -0,0 +1,5 @@
+package pact.shopping.product.model.enums;
+
+public enum StockReservationStateEnum {
+    RESERVED, RELEASED
+}
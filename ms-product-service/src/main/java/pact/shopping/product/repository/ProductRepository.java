@@ -1,9 +1,59 @@
 package pact.shopping.product.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pact.shopping.product.model.Product;
+import pact.shopping.product.model.enums.ProductCategoryEnum;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1 where p.id = :id and p.quantity >= :quantity")
+    int reserve(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :quantity, p.version = p.version + 1 where p.id = :id")
+    int release(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("""
+            select p from Product p
+            where p.id > :after
+              and (:active is null or p.active = :active)
+              and (:category is null or p.category = :category)
+            order by p.id
+            """)
+    List<Product> findPage(@Param("after") Long after,
+                           @Param("active") Boolean active,
+                           @Param("category") ProductCategoryEnum category,
+                           Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select p from Product p
+            where (:active is null or p.active = :active)
+              and (:category is null or p.category = :category)
+            order by p.id
+            """)
+    Stream<Product> streamAll(@Param("active") Boolean active,
+                              @Param("category") ProductCategoryEnum category);
 }
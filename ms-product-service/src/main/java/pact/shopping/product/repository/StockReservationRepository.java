@@ -0,0 +1,19 @@
+package pact.shopping.product.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+import pact.shopping.product.model.StockReservation;
+
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findAllByOrderUuidOrderByProductId(String orderUuid);
+
+    // a release waits for a concurrent one of the same order, so the stock goes back once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findAllForUpdateByOrderUuidOrderByProductId(String orderUuid);
+}
@@ -1,25 +1,48 @@
 package pact.shopping.product.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import pact.shopping.product.dto.ProductResponse;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import pact.shopping.product.dto.*;
 import pact.shopping.product.mapping.ProductMapping;
 import pact.shopping.product.model.Product;
+import pact.shopping.product.model.StockReservation;
+import pact.shopping.product.model.enums.ProductCategoryEnum;
+import pact.shopping.product.model.enums.StockReservationStateEnum;
 import pact.shopping.product.repository.ProductRepository;
-import pact.shopping.product.service.client.PriceClient;
+import pact.shopping.product.repository.StockReservationRepository;
+import pact.shopping.product.service.cache.PriceCache;
+import pact.shopping.product.service.client.ClientFailures;
+import pact.shopping.product.service.exceptions.BadRequestException;
 import pact.shopping.product.service.exceptions.NotFoundException;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
 
 @Service
 @AllArgsConstructor
 public class ProductService {
 
+    private static final int MAX_BULK_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ProductRepository repository;
+    private final StockReservationRepository reservationRepository;
     private final ProductMapping mapper;
-    private final PriceClient priceClient;
+    private final PriceCache priceCache;
+    private final EntityManager entityManager;
 
 
     public Product insert(Product product) {
@@ -37,18 +60,75 @@ public class ProductService {
         repository.save(productFound);
     }
 
+    public String findETagById(Long id) {
+        var version = repository.findVersionById(id).orElseThrow(NotFoundException::new);
+        return version + "-" + priceCache.findAllByProductId(id).tag();
+    }
+
     public ProductResponse findByIdWithPrices(Long id) {
         var product = repository.findById(id).orElseThrow(NotFoundException::new);
-        var prices = priceClient.findAllByProductId(id);
+        var prices = priceCache.findAllByProductId(id).body();
         return mapper.to(product, prices);
     }
 
+    public List<ProductResponse> findAllByIdsWithPrices(Collection<Long> ids) {
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("At most %s product ids can be requested at once".formatted(MAX_BULK_SIZE));
+        }
+        var products = repository.findAllById(ids);
+        if (products.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // bulk reads carry only the current price, the full history stays on the single product read
+        var productIds = products.stream().map(Product::getId).toList();
+        var prices = findCurrentPrices(productIds);
+        return products.stream()
+                .map(product -> mapper.to(product, prices.get(product.getId())))
+                .toList();
+    }
+
+    private Map<Long, PriceResponse> findCurrentPrices(List<Long> productIds) {
+        try {
+            return priceCache.findCurrentByProductIds(productIds);
+        } catch (RuntimeException e) {
+            // while price-service is unavailable cached prices are served if every product has one
+            if (!ClientFailures.isUnavailable(e)) {
+                throw e;
+            }
+            return priceCache.findCurrentPresent(productIds).orElseThrow(() -> e);
+        }
+    }
+
     public Product findById(Long id) {
         return repository.findById(id).orElseThrow(NotFoundException::new);
     }
 
-    public List<Product> findAll() {
-        return repository.findAll();
+    public ProductPageResponse findAll(String cursor, int limit, Boolean active, ProductCategoryEnum category) {
+        var pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var after = cursor == null ? 0L : ProductCursor.decode(cursor).id();
+        // one row more than requested tells whether there is a next page
+        var products = repository.findPage(after, active, category, PageRequest.of(0, pageSize + 1));
+
+        var hasNext = products.size() > pageSize;
+        if (hasNext) {
+            products = products.subList(0, pageSize);
+        }
+        return ProductPageResponse.builder()
+                .products(products)
+                .next(hasNext ? new ProductCursor(products.get(pageSize - 1).getId()).encode() : null)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Boolean active, ProductCategoryEnum category, Consumer<Product> consumer) {
+        try (var products = repository.streamAll(active, category)) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                // rows already written must not pile up in the persistence context
+                entityManager.detach(product);
+            });
+        }
     }
 
     public void delete(Long id) {
@@ -56,4 +136,78 @@ public class ProductService {
         product.setActive(Boolean.FALSE);
         repository.save(product);
     }
+
+    @Transactional
+    public StockReservationResponse reserve(StockReservationRequest request) {
+        // a retried reservation of the same order gets the stock it already holds
+        var existing = reservationRepository.findAllByOrderUuidOrderByProductId(request.getOrderUuid());
+        if (!existing.isEmpty()) {
+            var items = existing.stream().map(this::toItem).toList();
+            var reserved = existing.stream().allMatch(row -> row.getState() == StockReservationStateEnum.RESERVED);
+            return new StockReservationResponse(reserved, items);
+        }
+
+        // the rows are written first, a concurrent request for the same order waits on the unique index and fails
+        var now = LocalDateTime.now();
+        var merged = merge(request);
+        reservationRepository.saveAllAndFlush(merged.stream()
+                .map(item -> StockReservation.builder()
+                        .orderUuid(request.getOrderUuid())
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .state(StockReservationStateEnum.RESERVED)
+                        .createdAt(now)
+                        .build())
+                .toList());
+
+        // rows are always updated in productId order so concurrent reservations cannot deadlock
+        var items = merged.stream()
+                .map(item -> item.toBuilder()
+                        .status(repository.reserve(item.getProductId(), item.getQuantity()) == 1
+                                ? StockReservationStatusEnum.RESERVED
+                                : StockReservationStatusEnum.INSUFFICIENT_STOCK)
+                        .build())
+                .toList();
+
+        var reserved = items.stream().allMatch(item -> item.getStatus() == StockReservationStatusEnum.RESERVED);
+        if (!reserved) {
+            // the cart is reserved as a whole or not at all, nothing is recorded for the order either
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+        return new StockReservationResponse(reserved, items);
+    }
+
+    // only what the order holds is given back, and only once, whatever the request repeats
+    @Transactional
+    public StockReservationResponse release(StockReservationRequest request) {
+        var rows = reservationRepository.findAllForUpdateByOrderUuidOrderByProductId(request.getOrderUuid());
+        rows.stream()
+                .filter(row -> row.getState() == StockReservationStateEnum.RESERVED)
+                .forEach(row -> {
+                    repository.release(row.getProductId(), row.getQuantity());
+                    row.setState(StockReservationStateEnum.RELEASED);
+                });
+        return new StockReservationResponse(Boolean.TRUE, rows.stream().map(this::toItem).toList());
+    }
+
+    private StockReservationItem toItem(StockReservation row) {
+        return StockReservationItem.builder()
+                .productId(row.getProductId())
+                .quantity(row.getQuantity())
+                .status(row.getState() == StockReservationStateEnum.RESERVED
+                        ? StockReservationStatusEnum.RESERVED
+                        : StockReservationStatusEnum.RELEASED)
+                .build();
+    }
+
+    private List<StockReservationItem> merge(StockReservationRequest request) {
+        return request.getItems().stream()
+                .collect(groupingBy(StockReservationItem::getProductId, TreeMap::new, summingInt(StockReservationItem::getQuantity)))
+                .entrySet().stream()
+                .map(entry -> StockReservationItem.builder()
+                        .productId(entry.getKey())
+                        .quantity(entry.getValue())
+                        .build())
+                .toList();
+    }
 }
@@ -0,0 +1,144 @@
+package pact.shopping.product.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pact.shopping.product.dto.PriceResponse;
+import pact.shopping.product.dto.PriceSearchRequest;
+import pact.shopping.product.service.changes.PriceChangeListener;
+import pact.shopping.product.service.changes.PricesChanged;
+import pact.shopping.product.service.client.ClientFailures;
+import pact.shopping.product.service.client.PriceClient;
+import pact.shopping.product.service.lookup.SingleFlight;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class PriceCache {
+    private final Cache<Long, ETagged<List<PriceResponse>>> cache;
+    private final PriceClient client;
+    private final PriceChangeListener changes;
+    // concurrent reads of the same product share one call to price-service
+    private final SingleFlight<Long, ETagged<List<PriceResponse>>> productFlight;
+    private final SingleFlight<Long, PriceResponse> currentFlight;
+    private final Cache<Long, PriceResponse> currentCache;
+    // bumped before every eviction, a fetch that started under an older generation must not stay cached
+    private final AtomicLongArray generations = new AtomicLongArray(1024);
+
+    public PriceCache(Cache<Long, ETagged<List<PriceResponse>>> cache,
+                      Cache<Long, PriceResponse> currentCache,
+                      PriceClient client,
+                      PriceChangeListener changes,
+                      MeterRegistry registry,
+                      @Value("${product.prices.single-flight.max-wait:2s}") Duration maxWait) {
+        this.cache = cache;
+        this.currentCache = currentCache;
+        this.client = client;
+        this.changes = changes;
+        this.productFlight = new SingleFlight<>("prices", maxWait, registry);
+        this.currentFlight = new SingleFlight<>("current-prices", maxWait, registry);
+    }
+
+    public ETagged<List<PriceResponse>> findAllByProductId(Long productId) {
+        var cached = cache.getIfPresent(productId);
+        if (cached != null && changes.isLive()) {
+            // the change feed would have evicted the entry if any of its prices had changed
+            return cached;
+        }
+        ETagged<List<PriceResponse>> prices;
+        try {
+            prices = productFlight.get(productId, id -> {
+                var generation = generation(id);
+                var fetched = cached == null
+                        ? ETagged.of(client.findAllByProductId(id, null))
+                        : cached.revalidate(etag -> client.findAllByProductId(id, etag));
+                if (fetched != cached && fetched.etag() != null) {
+                    putIfCurrent(cache, id, fetched, generation);
+                }
+                return fetched;
+            });
+        } catch (RuntimeException e) {
+            // the last known prices are served while price-service is unavailable
+            if (cached == null || !ClientFailures.isUnavailable(e)) {
+                throw e;
+            }
+            return cached;
+        }
+        return prices;
+    }
+
+    // products without a price are left out of the result
+    public Map<Long, PriceResponse> findCurrentByProductIds(Collection<Long> productIds) {
+        var prices = new HashMap<Long, PriceResponse>();
+        var missing = productIds;
+        if (changes.isLive()) {
+            prices.putAll(currentCache.getAllPresent(productIds));
+            missing = productIds.stream().filter(id -> !prices.containsKey(id)).toList();
+        }
+        if (!missing.isEmpty()) {
+            var fetched = currentFlight.getAll(missing, ids -> {
+                var started = new HashMap<Long, Long>();
+                ids.forEach(id -> started.put(id, generation(id)));
+                var current = client.findCurrentByProductIds(new PriceSearchRequest(ids));
+                current.forEach((id, price) -> putIfCurrent(currentCache, id, price, started.get(id)));
+                return current;
+            });
+            prices.putAll(fetched);
+        }
+        return prices;
+    }
+
+    private int stripe(Long productId) {
+        return Math.floorMod(productId.hashCode(), generations.length());
+    }
+
+    private long generation(Long productId) {
+        return generations.get(stripe(productId));
+    }
+
+    // an eviction that raced with the fetch may have run before this put, so the entry is taken back out
+    private <V> void putIfCurrent(Cache<Long, V> target, Long productId, V value, long generation) {
+        target.put(productId, value);
+        if (generation(productId) != generation) {
+            target.asMap().remove(productId, value);
+        }
+    }
+
+    @EventListener
+    public void onPricesChanged(PricesChanged event) {
+        if (event.all()) {
+            for (int i = 0; i < generations.length(); i++) {
+                generations.incrementAndGet(i);
+            }
+            cache.invalidateAll();
+            currentCache.invalidateAll();
+        } else {
+            event.productIds().forEach(productId -> generations.incrementAndGet(stripe(productId)));
+            cache.invalidateAll(event.productIds());
+            currentCache.invalidateAll(event.productIds());
+        }
+    }
+
+    // the last known current price of every product, taken from the head of a cached history when needed
+    public Optional<Map<Long, PriceResponse>> findCurrentPresent(Collection<Long> productIds) {
+        var present = new HashMap<Long, PriceResponse>();
+        for (Long productId : productIds) {
+            var price = Optional.ofNullable(currentCache.getIfPresent(productId))
+                    .or(() -> Optional.ofNullable(cache.getIfPresent(productId))
+                            .flatMap(history -> history.body().stream().findFirst()));
+            if (price.isEmpty()) {
+                return Optional.empty();
+            }
+            present.put(productId, price.get());
+        }
+        return Optional.of(present);
+    }
+}
@@ -0,0 +1,16 @@
+package pact.shopping.product.service.changes;
+
+import java.util.Collection;
+import java.util.List;
+
+// published for every batch of the price change feed, all is set when every cached price has to go
+public record PricesChanged(Collection<Long> productIds, boolean all) {
+
+    public static PricesChanged of(Collection<Long> productIds) {
+        return new PricesChanged(productIds, false);
+    }
+
+    public static PricesChanged everything() {
+        return new PricesChanged(List.of(), true);
+    }
+}
@@ -0,0 +1,20 @@
+package pact.shopping.product.service.client;
+
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
+public final class ClientFailures {
+
+    private ClientFailures() {
+    }
+
+    // the remote side cannot answer right now, which says nothing about the data itself
+    public static boolean isUnavailable(Throwable e) {
+        return e instanceof CallNotPermittedException
+                || e instanceof BulkheadFullException
+                || e instanceof RetryableException
+                || e instanceof FeignException.FeignServerException;
+    }
+}
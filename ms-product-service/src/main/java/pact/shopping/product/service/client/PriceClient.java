@@ -1,17 +1,28 @@
 package pact.shopping.product.service.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import pact.shopping.product.dto.PriceResponse;
+import pact.shopping.product.dto.PriceSearchRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @Component
-@FeignClient(url="${feign.clients.price}", name = "PriceClient")
+@FeignClient(url = "${feign.clients.price.url}", name = "PriceClient", contextId = "price")
 public interface PriceClient {
 
     @GetMapping(value = "/v1/products/{productId}/prices")
-    List<PriceResponse> findAllByProductId(@PathVariable("productId") Long id);
+    ResponseEntity<List<PriceResponse>> findAllByProductId(@PathVariable("productId") Long id,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etag);
+
+    @PostMapping(value = "/v1/products/prices/current/search")
+    Map<Long, PriceResponse> findCurrentByProductIds(@RequestBody PriceSearchRequest request);
 }
@@ -0,0 +1,143 @@
+package pact.shopping.product.service.lookup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import pact.shopping.product.service.deadline.RequestDeadline;
+import pact.shopping.product.service.exceptions.GatewayTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// Concurrent lookups of the same key share one remote call: the first caller runs it,
+// the others wait for its result or failure, at most maxWait or what is left of their deadline.
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final Duration maxWait;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter calls;
+    private final Counter shared;
+
+    public SingleFlight(String name, Duration maxWait, MeterRegistry registry) {
+        this.name = name;
+        this.maxWait = maxWait;
+        this.calls = Counter.builder("lookup.single.flight")
+                .description("Keys looked up by a remote call of their own")
+                .tags("name", name, "outcome", "called")
+                .register(registry);
+        this.shared = Counter.builder("lookup.single.flight")
+                .description("Keys answered by a remote call already in flight")
+                .tags("name", name, "outcome", "shared")
+                .register(registry);
+    }
+
+    public V get(K key, Function<K, V> call) {
+        var flight = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return await(existing, waitLimit());
+        }
+        calls.increment();
+        try {
+            var value = call.apply(key);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // null keys and keys without a value in the map returned by the call are left out of the result
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> call) {
+        var own = new HashMap<K, CompletableFuture<V>>();
+        var joined = new HashMap<K, CompletableFuture<V>>();
+        for (K key : keys) {
+            if (key == null) {
+                continue;
+            }
+            var flight = new CompletableFuture<V>();
+            var existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                own.put(key, flight);
+            } else {
+                joined.put(key, existing);
+            }
+        }
+        calls.increment(own.size());
+        shared.increment(joined.size());
+
+        var result = new HashMap<K, V>();
+        if (!own.isEmpty()) {
+            try {
+                var values = call.apply(new ArrayList<>(own.keySet()));
+                own.forEach((key, flight) -> {
+                    var value = values.get(key);
+                    flight.complete(value);
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                own.values().forEach(flight -> flight.completeExceptionally(e));
+                throw e;
+            } finally {
+                own.forEach(inFlight::remove);
+            }
+        }
+
+        var limit = waitLimit();
+        var start = System.nanoTime();
+        joined.forEach((key, flight) -> {
+            var value = await(flight, limit.minusNanos(System.nanoTime() - start));
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    private Duration waitLimit() {
+        return RequestDeadline.remaining()
+                .filter(remaining -> remaining.compareTo(maxWait) < 0)
+                .orElse(maxWait);
+    }
+
+    private V await(CompletableFuture<V> flight, Duration limit) {
+        try {
+            return flight.get(Math.max(0, limit.toNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new GatewayTimeoutException("Shared %s lookup did not complete within %s".formatted(name, limit));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for %s lookup".formatted(name), e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private RuntimeException unwrap(Throwable cause) {
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+}
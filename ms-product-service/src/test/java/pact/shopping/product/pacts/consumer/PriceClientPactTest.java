@@ -6,14 +6,17 @@ import au.com.dius.pact.consumer.junit5.PactConsumerTestExt;
 import au.com.dius.pact.consumer.junit5.PactTestFor;
 import au.com.dius.pact.core.model.RequestResponsePact;
 import au.com.dius.pact.core.model.annotations.Pact;
+import feign.FeignException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 import pact.shopping.product.dto.CurrencyDto;
 import pact.shopping.product.dto.CurrencyEnum;
 import pact.shopping.product.dto.PriceResponse;
+import pact.shopping.product.dto.PriceSearchRequest;
 import pact.shopping.product.service.client.PriceClient;
 
 import java.math.BigDecimal;
@@ -29,7 +32,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @ActiveProfiles({"local"})
 @SpringBootTest({
         // overriding provider address
-        "feign.clients.price: http://localhost:8889"
+        "feign.clients.price.url: http://localhost:8889"
 })
 @ExtendWith(PactConsumerTestExt.class)
 @PactTestFor(providerName = "PriceService")
@@ -86,10 +89,75 @@ public class PriceClientPactTest {
                 .toPact();
     }
 
+    @Pact(consumer = "ProductService")
+    public RequestResponsePact pricesByProductNotModified(PactDslWithProvider builder) {
+        return builder
+                .given("prices by product ID 10 exists", "id", 10)
+                .uponReceiving("price by product ID 10 not modified")
+                .path("/v1/products/10/prices")
+                .headers(HttpHeaders.IF_NONE_MATCH, "\"1-1-0\"")
+                .willRespondWith()
+                .status(304)
+                .toPact();
+    }
+
+    @Pact(consumer = "ProductService")
+    public RequestResponsePact currentPricesByProducts(PactDslWithProvider builder) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        return builder
+                .given("current prices by product ID 10 and 11 exist")
+                .uponReceiving("current prices by product ID 10 and 11 exist")
+                .path("/v1/products/prices/current/search")
+                .method("POST")
+                .headers(headers)
+                .body(
+                    """
+                        {
+                            "productIds": [10, 11]
+                        }
+                            """
+                )
+                .willRespondWith()
+                .status(200)
+                .headers(headers)
+                .body(
+                    """
+                        {
+                            "10": {
+                                "id": 3,
+                                "uuid": "5d2b8e0a-9f43-4c7e-8d61-2a7f3e9b1c42",
+                                "createdAt": "2024-03-10T08:15:00",
+                                "productId": 10,
+                                "discount": 0.0,
+                                "amount": 139.99,
+                                "currency": {
+                                    "symbol": "$",
+                                    "iso": "USD"
+                                }
+                            },
+                            "11": {
+                                "id": 2,
+                                "uuid": "0f4b1c4e-3c1b-4c55-9d1a-6c1b2f5f8a11",
+                                "createdAt": "2024-03-09T19:44:17",
+                                "productId": 11,
+                                "discount": 0.0,
+                                "amount": 1999.0,
+                                "currency": {
+                                    "symbol": "$",
+                                    "iso": "USD"
+                                }
+                            }
+                        }
+                            """
+                )
+                .toPact();
+    }
+
     @Test
     @PactTestFor(pactMethod = "pricesByProduct")
     void testPricesByProduct() {
-        List<PriceResponse> prices = priceClient.findAllByProductId(10L);
+        List<PriceResponse> prices = priceClient.findAllByProductId(10L, null).getBody();
 
         assertNotNull(prices);
         assertEquals(1, prices.size());
@@ -112,7 +180,29 @@ public class PriceClientPactTest {
     @Test
     @PactTestFor(pactMethod = "pricesByProductNotExists")
     void testPricesByProductNotExists() {
-        List<PriceResponse> prices = priceClient.findAllByProductId(10L);
+        List<PriceResponse> prices = priceClient.findAllByProductId(10L, null).getBody();
         assertThat(prices, is(empty()));
     }
+
+    @Test
+    @PactTestFor(pactMethod = "pricesByProductNotModified")
+    void testPricesByProductNotModified() {
+        try {
+            priceClient.findAllByProductId(10L, "\"1-1-0\"");
+            fail("Expected service call to answer 304");
+        } catch (FeignException ex) {
+            assertEquals(304, ex.status());
+        }
+    }
+
+    @Test
+    @PactTestFor(pactMethod = "currentPricesByProducts")
+    void testCurrentPricesByProducts() {
+        Map<Long, PriceResponse> prices = priceClient.findCurrentByProductIds(new PriceSearchRequest(List.of(10L, 11L)));
+
+        assertNotNull(prices);
+        assertEquals(2, prices.size());
+        assertEquals(BigDecimal.valueOf(139.99), prices.get(10L).getAmount());
+        assertEquals(BigDecimal.valueOf(1999.0), prices.get(11L).getAmount());
+    }
 }
@@ -11,13 +11,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import pact.shopping.product.dto.CurrencyDto;
 import pact.shopping.product.dto.CurrencyEnum;
 import pact.shopping.product.dto.PriceResponse;
+import pact.shopping.product.dto.PriceSearchRequest;
 import pact.shopping.product.model.Product;
 import pact.shopping.product.model.enums.ProductCategoryEnum;
 import pact.shopping.product.repository.ProductRepository;
+import pact.shopping.product.repository.StockReservationRepository;
 import pact.shopping.product.service.client.PriceClient;
 
 import java.math.BigDecimal;
@@ -43,6 +46,9 @@ public class ProductPactVerificationTest {
     @MockBean
     ProductRepository productRepository;
 
+    @MockBean
+    StockReservationRepository stockReservationRepository;
+
     @MockBean
     PriceClient priceClient;
 
@@ -70,6 +76,7 @@ public class ProductPactVerificationTest {
                 .category(ProductCategoryEnum.ELECTRONICS)
                 .createdAt(LocalDateTime.now())
                 .quantity(10)
+                .version(0L)
                 .build();
 
         var prices = Collections.singletonList(PriceResponse.builder()
@@ -81,14 +88,61 @@ public class ProductPactVerificationTest {
                         .symbol("$").build())
                 .build());
 
+        when(productRepository.findVersionById(eq(10L))).thenReturn(Optional.of(0L));
         when(productRepository.findById(eq(10L))).thenReturn(Optional.of(product));
-        when(priceClient.findAllByProductId(eq(10L))).thenReturn(prices);
+        when(priceClient.findAllByProductId(eq(10L), any())).thenReturn(ResponseEntity.ok().eTag("1-1-0").body(prices));
         when(productRepository.save(any(Product.class))).thenReturn(product);
     }
 
+    @State(value = "products with ID 10 and 11 exist", action = StateChangeAction.SETUP)
+    void productsExist() {
+        Product tv = Product.builder()
+                .id(10L)
+                .name("Samsung TV Neo QLED 8K 85 QE85QN800B")
+                .category(ProductCategoryEnum.ELECTRONICS)
+                .createdAt(LocalDateTime.now())
+                .quantity(10)
+                .build();
+        Product laptop = Product.builder()
+                .id(11L)
+                .name("Apple MacBook Pro 14")
+                .category(ProductCategoryEnum.COMPUTERS)
+                .createdAt(LocalDateTime.now())
+                .quantity(5)
+                .build();
+
+        when(productRepository.findAllById(eq(List.of(10L, 11L)))).thenReturn(List.of(tv, laptop));
+        when(priceClient.findCurrentByProductIds(any(PriceSearchRequest.class))).thenReturn(Map.of(
+                10L, price(1L, 145.78),
+                11L, price(2L, 1999.0)));
+    }
+
+    @State(value = "products with ID 10 and 11 have stock", action = StateChangeAction.SETUP)
+    void productsHaveStock() {
+        when(productRepository.reserve(eq(10L), eq(2))).thenReturn(1);
+        when(productRepository.reserve(eq(11L), eq(1))).thenReturn(1);
+    }
+
+    @State(value = "product with ID 10 is out of stock", action = StateChangeAction.SETUP)
+    void productOutOfStock(Map<String, Object> params) {
+        long productId = ((Number) params.get("id")).longValue();
+        when(productRepository.reserve(eq(productId), any(Integer.class))).thenReturn(0);
+    }
+
     @State(value = "product with ID 10 does not exist", action = StateChangeAction.SETUP)
     void productNotExist(Map<String, Object> params) {
         long productId = ((Number) params.get("id")).longValue();
         when(productRepository.findById(eq(productId))).thenReturn(Optional.empty());
     }
+
+    private PriceResponse price(Long id, double amount) {
+        return PriceResponse.builder()
+                .id(id)
+                .amount(BigDecimal.valueOf(amount))
+                .discount(BigDecimal.valueOf(0.0))
+                .currency(CurrencyDto.builder()
+                        .iso(CurrencyEnum.USD)
+                        .symbol("$").build())
+                .build();
+    }
 }